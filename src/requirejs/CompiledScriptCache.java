@@ -0,0 +1,104 @@
+package requirejs;
+
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.EvaluatorException;
+import org.mozilla.javascript.Script;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Rhino scripts compiled from files, reused until the file's VFS modification stamp changes.
+ * Kept by the project component, so the scripts go away with the project.
+ *
+ * Scripts are compiled to bytecode at {@link #OPTIMIZATION_LEVEL}; a file too large for the class
+ * file limits falls back to interpreted mode. A compiled script holds no scope of its own, so one
+ * instance is executed into the scopes of all runtimes and engines.
+ */
+public class CompiledScriptCache {
+    public static final int OPTIMIZATION_LEVEL = 9;
+
+    protected RequirejsProjectComponent component;
+    private final ConcurrentMap<String, CompiledScript> scripts = new ConcurrentHashMap<String, CompiledScript>();
+    private final Set<String> interpretedFiles = ConcurrentHashMap.newKeySet();
+
+    public CompiledScriptCache(RequirejsProjectComponent requirejsProjectComponent) {
+        component = requirejsProjectComponent;
+    }
+
+    public Script getScript(Context ctx, String sourceFile) throws IOException {
+        VirtualFile file = LocalFileSystem.getInstance().findFileByPath(sourceFile);
+        long stamp = null != file && file.isValid() ? file.getModificationStamp() : -1;
+
+        CompiledScript compiled = scripts.get(sourceFile);
+        if (null == compiled || -1 == stamp || compiled.stamp != stamp) {
+            compiled = new CompiledScript(compile(ctx, sourceFile), stamp);
+            scripts.put(sourceFile, compiled);
+        }
+
+        return compiled.script;
+    }
+
+    public void clear() {
+        scripts.clear();
+    }
+
+    private Script compile(Context ctx, String sourceFile) throws IOException {
+        int optimizationLevel = ctx.getOptimizationLevel();
+        try {
+            ctx.setOptimizationLevel(OPTIMIZATION_LEVEL);
+            try {
+                return compileFile(ctx, sourceFile);
+            } catch (EvaluatorException e) {
+                if (!isClassFileLimitExceeded(e)) {
+                    throw e;
+                }
+                if (interpretedFiles.add(sourceFile)) {
+                    component.getLogger().info("'" + sourceFile + "' is too large to compile, running it interpreted: " + e.details());
+                }
+                ctx.setOptimizationLevel(-1);
+                return compileFile(ctx, sourceFile);
+            }
+        } finally {
+            ctx.setOptimizationLevel(optimizationLevel);
+        }
+    }
+
+    /**
+     * Whether Rhino failed generating bytecode, as opposed to parsing the source. Matches the
+     * "msg.while.compiling.*" and "msg.too.big.*" messages of Rhino's code generator.
+     */
+    private static boolean isClassFileLimitExceeded(EvaluatorException e) {
+        String details = e.details();
+        return null != details && (
+                details.startsWith("Encountered code generation error")
+                || details.startsWith("Program too complex")
+        );
+    }
+
+    private static Script compileFile(Context ctx, String sourceFile) throws IOException {
+        Reader in = new InputStreamReader(new FileInputStream(sourceFile));
+        try {
+            return ctx.compileReader(in, sourceFile, 1, null);
+        } finally {
+            in.close();
+        }
+    }
+
+    private static class CompiledScript {
+        final Script script;
+        final long stamp;
+
+        CompiledScript(Script script, long stamp) {
+            this.script = script;
+            this.stamp = stamp;
+        }
+    }
+}
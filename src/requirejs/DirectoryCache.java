@@ -0,0 +1,83 @@
+package requirejs;
+
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Project level cache of the content roots and of the files looked up by a path relative to them:
+ * the web dir, the base url, the config file and require.js.
+ *
+ * Lookups are keyed on the path, which comes from the settings or the config, so changed settings
+ * simply miss. The whole cache is dropped when a file is created, deleted, renamed or moved and on
+ * root changes; content changes do not affect it.
+ */
+public class DirectoryCache {
+    private static final Object NOT_FOUND = new Object();
+
+    protected RequirejsProjectComponent component;
+    private final CachedValue<VirtualFile[]> contentRoots;
+    private final CachedValue<ConcurrentMap<String, Object>> files;
+
+    public DirectoryCache(RequirejsProjectComponent requirejsProjectComponent) {
+        component = requirejsProjectComponent;
+        CachedValuesManager manager = CachedValuesManager.getManager(component.project);
+        contentRoots = manager.createCachedValue(
+                new CachedValueProvider<VirtualFile[]>() {
+                    @Nullable
+                    @Override
+                    public Result<VirtualFile[]> compute() {
+                        ProjectRootManager rootManager = ProjectRootManager.getInstance(component.project);
+                        return Result.create(rootManager.getContentRoots(), rootManager);
+                    }
+                },
+                false
+        );
+        files = manager.createCachedValue(
+                new CachedValueProvider<ConcurrentMap<String, Object>>() {
+                    @Nullable
+                    @Override
+                    public Result<ConcurrentMap<String, Object>> compute() {
+                        return Result.create(
+                                (ConcurrentMap<String, Object>) new ConcurrentHashMap<String, Object>(),
+                                VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS,
+                                ProjectRootManager.getInstance(component.project)
+                        );
+                    }
+                },
+                false
+        );
+    }
+
+    public VirtualFile[] getContentRoots() {
+        return contentRoots.getValue();
+    }
+
+    /**
+     * Returns the file cached under key, running lookup on a miss. Missing files are cached too.
+     */
+    @Nullable
+    public VirtualFile find(String key, Supplier<VirtualFile> lookup) {
+        ConcurrentMap<String, Object> cache = files.getValue();
+        Object cached = cache.get(key);
+        if (NOT_FOUND == cached) {
+            return null;
+        }
+        if (null != cached && ((VirtualFile) cached).isValid()) {
+            return (VirtualFile) cached;
+        }
+
+        VirtualFile file = lookup.get();
+        cache.put(key, null == file ? NOT_FOUND : file);
+
+        return file;
+    }
+}
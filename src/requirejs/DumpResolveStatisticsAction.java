@@ -0,0 +1,41 @@
+package requirejs;
+
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Writes a snapshot of {@link ResolveStatistics} to a file in the IDE log directory.
+ */
+public class DumpResolveStatisticsAction extends AnAction {
+    @Override
+    public void update(AnActionEvent e) {
+        e.getPresentation().setEnabled(null != e.getData(CommonDataKeys.PROJECT));
+    }
+
+    @Override
+    public void actionPerformed(AnActionEvent e) {
+        Project project = e.getData(CommonDataKeys.PROJECT);
+        if (null == project) {
+            return;
+        }
+        RequirejsProjectComponent component = project.getComponent(RequirejsProjectComponent.class);
+        String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        File file = new File(PathManager.getLogPath(), "requirejs-statistics-" + timestamp + ".txt");
+        try {
+            FileUtil.writeToFile(file, component.getStatistics().snapshot());
+            component.showInfoNotification("Statistics written to " + file.getPath(), NotificationType.INFORMATION);
+        } catch (IOException ex) {
+            component.showInfoNotification("Failed to write statistics: " + ex.getMessage(), NotificationType.ERROR);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package requirejs;
+
+import com.intellij.ProjectTopics;
+import com.intellij.openapi.roots.ModuleRootAdapter;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileAdapter;
+import com.intellij.openapi.vfs.VirtualFileCopyEvent;
+import com.intellij.openapi.vfs.VirtualFileEvent;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.VirtualFileMoveEvent;
+import com.intellij.openapi.vfs.VirtualFilePropertyEvent;
+import com.intellij.openapi.vfs.newvfs.impl.VirtualDirectoryImpl;
+import com.intellij.openapi.vfs.newvfs.impl.VirtualFileImpl;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of all files under a directory (the web dir, a paths alias or a package location),
+ * stored as a {@link ModulePathTrie} of paths relative to that directory.
+ * Built once per directory on first query and kept current by VFS events afterwards,
+ * so completion no longer walks the whole tree on every lookup. Dropped when the project roots change.
+ *
+ * Building an index and applying VFS events hold the same lock, so an event arriving during a scan
+ * is applied once the new index is registered. Queries do not lock.
+ */
+public class ModulePathIndex {
+    protected RequirejsProjectComponent component;
+
+    private final Object lock = new Object();
+    private final Map<VirtualFile, ModulePathTrie> roots = new ConcurrentHashMap<VirtualFile, ModulePathTrie>();
+
+    public ModulePathIndex(RequirejsProjectComponent requirejsProjectComponent) {
+        component = requirejsProjectComponent;
+        VirtualFileManager.getInstance().addVirtualFileListener(new IndexVfsListener(), component.project);
+        component.project.getMessageBus().connect(component.project).subscribe(ProjectTopics.PROJECT_ROOTS, new ModuleRootAdapter() {
+            @Override
+            public void rootsChanged(ModuleRootEvent event) {
+                clear();
+            }
+        });
+    }
+
+    public void clear() {
+        synchronized (lock) {
+            roots.clear();
+        }
+    }
+
+    /**
+     * Returns relative paths of all files under root which start with prefix.
+     */
+    public List<String> getFilesWithPrefix(@NotNull VirtualFile root, @NotNull String prefix) {
+        List<String> files = new ArrayList<String>();
+        getFiles(root).collect(prefix, files);
+
+        return files;
+    }
+
+    /**
+     * Returns paths of all files under root which start with prefix, where root itself is named alias.
+     * Paths are built as alias + '/' + relative path.
+     */
+    public List<String> getAliasedFilesWithPrefix(@NotNull VirtualFile root, @NotNull String alias, @NotNull String prefix) {
+        String relativePrefix;
+        if (alias.startsWith(prefix)) {
+            relativePrefix = "";
+        } else if (prefix.startsWith(alias + '/')) {
+            relativePrefix = prefix.substring(alias.length() + 1);
+        } else {
+            return Collections.emptyList();
+        }
+
+        List<String> files = getFilesWithPrefix(root, relativePrefix);
+        for (int i = 0; i < files.size(); i++) {
+            files.set(i, alias + '/' + files.get(i));
+        }
+
+        return files;
+    }
+
+    protected ModulePathTrie getFiles(VirtualFile root) {
+        ModulePathTrie files = roots.get(root);
+        if (null != files) {
+            return files;
+        }
+
+        synchronized (lock) {
+            files = roots.get(root);
+            if (null == files) {
+                files = new ModulePathTrie();
+                addAllFiles(files, root, "");
+                roots.put(root, files);
+            }
+        }
+
+        return files;
+    }
+
+    private static void addAllFiles(ModulePathTrie files, VirtualFile directory, String relativePath) {
+        for (VirtualFile child : directory.getChildren()) {
+            if (child instanceof VirtualDirectoryImpl) {
+                addAllFiles(files, child, relativePath + child.getName() + '/');
+            } else if (child instanceof VirtualFileImpl) {
+                files.add(relativePath + child.getName());
+            }
+        }
+    }
+
+    protected void fileAdded(VirtualFile file) {
+        synchronized (lock) {
+            for (Map.Entry<VirtualFile, ModulePathTrie> entry : roots.entrySet()) {
+                if (VfsUtilCore.isAncestor(entry.getKey(), file, true)) {
+                    String relativePath = FileUtils.relativePath(entry.getKey(), file);
+                    if (file instanceof VirtualDirectoryImpl) {
+                        addAllFiles(entry.getValue(), file, relativePath + '/');
+                    } else if (file instanceof VirtualFileImpl) {
+                        entry.getValue().add(relativePath);
+                    }
+                }
+            }
+        }
+    }
+
+    protected void fileRemoved(VirtualFile parent, String name) {
+        synchronized (lock) {
+            for (Map.Entry<VirtualFile, ModulePathTrie> entry : roots.entrySet()) {
+                if (entry.getKey().equals(parent)) {
+                    entry.getValue().remove(name);
+                } else if (VfsUtilCore.isAncestor(entry.getKey(), parent, true)) {
+                    entry.getValue().remove(FileUtils.relativePath(entry.getKey(), parent) + '/' + name);
+                }
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // IndexVfsListener
+    // -------------------------------------------------------------------------
+    private class IndexVfsListener extends VirtualFileAdapter {
+        @Override
+        public void fileCreated(@NotNull VirtualFileEvent event) {
+            fileAdded(event.getFile());
+        }
+
+        @Override
+        public void fileCopied(@NotNull VirtualFileCopyEvent event) {
+            fileAdded(event.getFile());
+        }
+
+        @Override
+        public void beforeFileDeletion(@NotNull VirtualFileEvent event) {
+            VirtualFile parent = event.getFile().getParent();
+            if (null != parent) {
+                fileRemoved(parent, event.getFile().getName());
+            }
+        }
+
+        @Override
+        public void fileMoved(@NotNull VirtualFileMoveEvent event) {
+            fileRemoved(event.getOldParent(), event.getFile().getName());
+            fileAdded(event.getFile());
+        }
+
+        @Override
+        public void propertyChanged(@NotNull VirtualFilePropertyEvent event) {
+            if (!VirtualFile.PROP_NAME.equals(event.getPropertyName())) {
+                return;
+            }
+            VirtualFile parent = event.getFile().getParent();
+            if (null != parent) {
+                fileRemoved(parent, (String) event.getOldValue());
+                fileAdded(event.getFile());
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package requirejs;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Trie of '/' separated relative file paths, one node per path segment.
+ * A prefix query descends the complete segments of the prefix and then only visits
+ * the children matching the last, partial segment, so its cost follows the result size.
+ *
+ * Children are concurrent sorted maps, so queries can run on background threads while VFS events
+ * change the trie. Writers are expected to be serialized, {@link ModulePathIndex} holds a lock.
+ */
+public class ModulePathTrie {
+    private final Node root = new Node();
+
+    public void add(String path) {
+        Node node = root;
+        int start = 0;
+        int end;
+        while ((end = path.indexOf('/', start)) != -1) {
+            node = node.getOrCreateChild(path.substring(start, end));
+            start = end + 1;
+        }
+        node.getOrCreateChild(path.substring(start)).path = path;
+    }
+
+    /**
+     * Removes the file or the whole directory stored under path.
+     */
+    public void remove(String path) {
+        Node parent = root;
+        int start = 0;
+        int end;
+        while ((end = path.indexOf('/', start)) != -1) {
+            parent = parent.getChild(path.substring(start, end));
+            if (null == parent) {
+                return;
+            }
+            start = end + 1;
+        }
+        ConcurrentSkipListMap<String, Node> children = parent.children;
+        if (null != children) {
+            children.remove(path.substring(start));
+        }
+    }
+
+    /**
+     * Adds to result all stored paths which start with prefix.
+     */
+    public void collect(String prefix, List<String> result) {
+        Node node = root;
+        int start = 0;
+        int end;
+        while ((end = prefix.indexOf('/', start)) != -1) {
+            node = node.getChild(prefix.substring(start, end));
+            if (null == node) {
+                return;
+            }
+            start = end + 1;
+        }
+        ConcurrentSkipListMap<String, Node> children = node.children;
+        if (null == children) {
+            return;
+        }
+
+        String segmentPrefix = prefix.substring(start);
+        for (Node child : children.subMap(segmentPrefix, true, segmentPrefix + Character.MAX_VALUE, true).values()) {
+            child.collectAll(result);
+        }
+    }
+
+    private static class Node {
+        volatile ConcurrentSkipListMap<String, Node> children;
+        volatile String path;
+
+        Node getChild(String segment) {
+            ConcurrentSkipListMap<String, Node> children = this.children;
+            return null == children ? null : children.get(segment);
+        }
+
+        Node getOrCreateChild(String segment) {
+            ConcurrentSkipListMap<String, Node> children = this.children;
+            if (null == children) {
+                children = new ConcurrentSkipListMap<String, Node>();
+                this.children = children;
+            }
+            Node child = children.get(segment);
+            if (null == child) {
+                child = new Node();
+                children.put(segment, child);
+            }
+            return child;
+        }
+
+        void collectAll(List<String> result) {
+            String path = this.path;
+            if (null != path) {
+                result.add(path);
+            }
+            ConcurrentSkipListMap<String, Node> children = this.children;
+            if (null != children) {
+                for (Node child : children.values()) {
+                    child.collectAll(result);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package requirejs;
+
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.SimpleModificationTracker;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Project level cache of {@link Path#resolve()} results.
+ *
+ * Results are keyed on the module id, the plugin prefix and the directory of the requesting file
+ * (the file itself when the config has module specific map entries), so all literals which name
+ * the same module from the same place share one probe chain run. The whole cache is dropped when
+ * a file is created, deleted, renamed or moved, on root changes and on a full reparse of the
+ * requirejs config; an edit of single config entries only drops the modules they apply to, see
+ * {@link #invalidate(Collection)}. Content changes of other files do not affect it.
+ */
+public class ModuleResolveCache {
+    private static final Object NOT_FOUND = new Object();
+
+    protected RequirejsProjectComponent component;
+    private final SimpleModificationTracker configModificationTracker = new SimpleModificationTracker();
+    private final CachedValue<ConcurrentMap<CacheKey, Object>> results;
+
+    public ModuleResolveCache(RequirejsProjectComponent requirejsProjectComponent) {
+        component = requirejsProjectComponent;
+        results = CachedValuesManager.getManager(component.project).createCachedValue(
+                new CachedValueProvider<ConcurrentMap<CacheKey, Object>>() {
+                    @Nullable
+                    @Override
+                    public Result<ConcurrentMap<CacheKey, Object>> compute() {
+                        return Result.create(
+                                (ConcurrentMap<CacheKey, Object>) new ConcurrentHashMap<CacheKey, Object>(),
+                                VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS,
+                                ProjectRootManager.getInstance(component.project),
+                                configModificationTracker
+                        );
+                    }
+                },
+                false
+        );
+    }
+
+    /**
+     * Drops all cached results, called when the parsed requirejs config changes.
+     */
+    public void clear() {
+        configModificationTracker.incModificationCount();
+    }
+
+    /**
+     * Drops the cached results of the given module ids and of all modules below them.
+     */
+    public void invalidate(Collection<String> moduleIds) {
+        if (moduleIds.isEmpty()) {
+            return;
+        }
+        results.getValue().keySet().removeIf(key -> isAffected(key.moduleId, moduleIds));
+    }
+
+    protected boolean isCached(String moduleId) {
+        for (CacheKey key : results.getValue().keySet()) {
+            if (key.moduleId.equals(moduleId)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Whether moduleId is one of moduleIds or starts with whole segments of one of them.
+     */
+    public static boolean isAffected(String moduleId, Collection<String> moduleIds) {
+        for (String changed : moduleIds) {
+            if (moduleId.startsWith(changed)
+                    && (moduleId.length() == changed.length() || moduleId.charAt(changed.length()) == '/')) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Nullable
+    public PsiElement resolve(PsiElement element) {
+        return resolve(new Path(element, component));
+    }
+
+    @Nullable
+    public PsiElement resolve(Path path) {
+        PsiFile containingFile = path.element.getContainingFile();
+        VirtualFile file = containingFile.getOriginalFile().getVirtualFile();
+        if (null == file || null == file.getParent()) {
+            return path.resolve();
+        }
+
+        CacheKey key = new CacheKey(
+                path.getPath(),
+                path.getModule(),
+                component.getConfig().requireMap.hasModuleScopes() ? file : file.getParent()
+        );
+        ConcurrentMap<CacheKey, Object> cache = results.getValue();
+        Object cached = cache.get(key);
+        if (null != cached) {
+            PsiElement result = fromCacheValue(cached);
+            if (null != result || NOT_FOUND == cached) {
+                component.statistics.recordModuleCacheLookup(true);
+                return result;
+            }
+        }
+        component.statistics.recordModuleCacheLookup(false);
+
+        PsiElement result = path.resolve();
+        Object value = toCacheValue(result, containingFile);
+        if (null != value) {
+            cache.put(key, value);
+        }
+
+        return result;
+    }
+
+    @Nullable
+    private PsiElement fromCacheValue(Object cached) {
+        if (NOT_FOUND == cached) {
+            return null;
+        }
+        VirtualFile target = (VirtualFile) cached;
+        if (!target.isValid()) {
+            return null;
+        }
+
+        return PsiManager.getInstance(component.project).findFile(target);
+    }
+
+    @Nullable
+    private static Object toCacheValue(@Nullable PsiElement result, PsiFile containingFile) {
+        if (null == result) {
+            return NOT_FOUND;
+        }
+        if (result != containingFile && result instanceof PsiFile && null != ((PsiFile) result).getVirtualFile()) {
+            return ((PsiFile) result).getVirtualFile();
+        }
+
+        // Magic modules and urls are bound to the requesting file and are cheap to resolve again
+        return null;
+    }
+
+    private static class CacheKey {
+        private final String moduleId;
+        private final String plugin;
+        private final VirtualFile base;
+
+        CacheKey(String moduleId, @Nullable String plugin, VirtualFile base) {
+            this.moduleId = moduleId;
+            this.plugin = plugin;
+            this.base = base;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return moduleId.equals(other.moduleId)
+                    && (null == plugin ? null == other.plugin : plugin.equals(other.plugin))
+                    && base.equals(other.base);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = moduleId.hashCode();
+            result = 31 * result + (null == plugin ? 0 : plugin.hashCode());
+            result = 31 * result + base.hashCode();
+            return result;
+        }
+    }
+}
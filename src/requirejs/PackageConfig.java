@@ -1,37 +1,100 @@
 package requirejs;
 
 import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class PackageConfig {
-    public String baseUrl;
     RequirejsProjectComponent component;
-    public List<Package> packages = new ArrayList<Package>();
+    private final List<Package> packages = new ArrayList<Package>();
+    private final SegmentTrie<Package> packagesByName = new SegmentTrie<Package>();
 
     public PackageConfig(RequirejsProjectComponent requirejsProjectComponent) {
         component = requirejsProjectComponent;
     }
 
-    public void clear() {
-        baseUrl = null;
-        packages.clear();
+    public List<Package> getPackages() {
+        return Collections.unmodifiableList(packages);
     }
 
-    public List<String> getAllFilesOnPackages() {
+    public void addPackage(Package pkg) {
+        packages.add(pkg);
+        if (null != pkg.name) {
+            packagesByName.put(pkg.name, pkg);
+        }
+    }
+
+    /**
+     * Returns the names of the packages which were added, removed or moved in other.
+     */
+    public Set<String> diff(PackageConfig other) {
+        Map<String, String> targets = new HashMap<String, String>();
+        for (Package pkg : packages) {
+            targets.put(pkg.name, pkg.location + '/' + pkg.main);
+        }
+        Set<String> changed = new HashSet<String>();
+        for (Package pkg : other.packages) {
+            String target = targets.remove(pkg.name);
+            if (null == target || !target.equals(pkg.location + '/' + pkg.main)) {
+                changed.add(pkg.name);
+            }
+        }
+        changed.addAll(targets.keySet());
+        changed.remove(null);
+
+        return changed;
+    }
+
+    /**
+     * Returns the package whose name is the longest whole-segment prefix of moduleId, or null.
+     */
+    @Nullable
+    public Package findPackage(String moduleId) {
+        List<Package> found = packagesByName.findPrefixes(moduleId);
+
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    /**
+     * Returns a copy of this config with the main file of every package looked up in baseDir, so
+     * a bare package name resolves without a file system lookup.
+     */
+    public PackageConfig resolveMainFiles(@Nullable VirtualFile baseDir) {
+        PackageConfig resolved = new PackageConfig(component);
+        for (Package pkg : packages) {
+            Package copy = pkg.copy();
+            copy.mainFile = null == baseDir ? null : baseDir.findFileByRelativePath(pkg.getMainPath());
+            resolved.addPackage(copy);
+        }
+
+        return resolved;
+    }
+
+    /**
+     * Rewrites moduleId, which is in pkg, through the packages config: the package name becomes its
+     * location and a bare package name points to its main module.
+     */
+    public static String getTarget(Package pkg, String moduleId) {
+        if (moduleId.equals(pkg.name)) {
+            return pkg.location + '/' + pkg.main;
+        }
+
+        return pkg.location + moduleId.substring(pkg.name.length());
+    }
+
+    public List<String> getFilesOnPackages(String prefix) {
         List<String> files = new ArrayList<String>();
         for(Package pack: packages) {
             VirtualFile directory = component.resolvePath(pack.location);
             if (directory != null && directory.isDirectory()) {
-                List<String> packageFiles = new ArrayList<String>();
-                packageFiles.addAll(
-                        FileUtils.getAllFilesInDirectory(
-                                directory,
-                                directory.getPath(),
-                                pack.name
-                        )
-                );
+                List<String> packageFiles = component.moduleIndex.getAliasedFilesWithPrefix(directory, pack.name, prefix);
                 packageFiles.remove(pack.name + '/' + pack.main + ".js");
                 files.addAll(packageFiles);
             }
@@ -49,4 +112,22 @@ class Package {
     public String main;
 
     public boolean mainExists = false;
+    /**
+     * location/main.js relative to the base url, looked up when the config snapshot is built.
+     */
+    public VirtualFile mainFile;
+
+    public String getMainPath() {
+        return location + '/' + main + ".js";
+    }
+
+    public Package copy() {
+        Package copy = new Package();
+        copy.name = name;
+        copy.location = location;
+        copy.main = main;
+        copy.mainExists = mainExists;
+
+        return copy;
+    }
 }
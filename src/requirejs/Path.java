@@ -1,7 +1,9 @@
 package requirejs;
 
 import com.intellij.javascript.nodejs.library.NodeJsCoreModulesCatalog;
-import com.intellij.notification.NotificationType;
+import com.intellij.lang.javascript.psi.JSArrayLiteralExpression;
+import com.intellij.lang.javascript.psi.JSExpression;
+import com.intellij.lang.javascript.psi.JSLiteralExpression;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiDirectory;
 import com.intellij.psi.PsiElement;
@@ -9,8 +11,12 @@ import com.intellij.psi.PsiManager;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
 
 public class Path {
     protected PsiElement element;
@@ -18,6 +24,7 @@ public class Path {
     protected String originValue;
     protected String path;
     protected String module = null;
+    private VirtualFile webDir;
 
     public static final List<String> MODULES_SKIPPED_RESOLVING = Arrays.asList(
             "goog",
@@ -56,10 +63,6 @@ public class Path {
         return path;
     }
 
-    public void setPath(String path) {
-        this.path = path;
-    }
-
     @Nullable
     public String getModule() {
         return module;
@@ -85,7 +88,7 @@ public class Path {
             return getContainingFile();
         }
 
-        result = resolveWithRequireJs();
+        result = probe("resolveWithRequireJs", this::resolveWithRequireJs);
         if (null != result) {
             return result;
         }
@@ -93,7 +96,7 @@ public class Path {
         if (this.isAbsolutePath()) {
             return resolveAbsolutePath();
         } else if (this.isRelativePath()) {
-            result = probeResolveRelativePath();
+            result = probe("probeResolveRelativePath", this::probeResolveRelativePath);
             if (null != result) {
                 return result;
             }
@@ -104,7 +107,7 @@ public class Path {
             return result;
         }
 
-        result = probeResolveBasic();
+        result = probe("probeResolveBasic", this::probeResolveBasic);
         if (null != result) {
             return result;
         }
@@ -114,20 +117,19 @@ public class Path {
             return result;
         }
 
-        result = probeResolveRequireAlias();
-        if (null != result) {
-            return result;
-        }
-
-        result = probeResolvePackage();
-        if (null != result) {
-            return result;
-        }
-
         component.getLogger().debug("Could not resolve reference for " + this.getOriginValue());
         return null;
     }
 
+    @Nullable
+    private PsiElement probe(String name, Supplier<PsiElement> probe) {
+        long start = System.nanoTime();
+        PsiElement result = probe.get();
+        component.statistics.recordProbe(name, System.nanoTime() - start, null != result);
+
+        return result;
+    }
+
     @Nullable
     protected PsiElement probeResolveUrl() {
         if (this.getPath().startsWith("http") || this.getPath().startsWith("//")) {
@@ -137,41 +139,51 @@ public class Path {
         return null;
     }
 
+    // map of the requesting module first, then paths, or else the package. A mapped id nothing else
+    // applies to is looked up in the web dir. Each stage is timed as its own probe.
     @Nullable
-    protected PsiElement probeResolvePackage() {
-        for (Package pkg : component.packageConfig.packages) {
-            if (this.getPath().startsWith(pkg.name)) {
-                VirtualFile targetFile;
-                String moduleFilePath;
-                if (this.getPath().equals(pkg.name)) {
-                    moduleFilePath = pkg.main;
-                } else {
-                    moduleFilePath = this.getPath().replace(pkg.name, "");
-                }
+    protected PsiElement probeResolveRequirePath() {
+        RequireConfig config = component.getConfig();
+        long start = System.nanoTime();
+        RequirePathAlias mapped = config.requireMap.getAliasByModule(getRequestingModuleId(), this.getPath());
+        String mappedPath = null == mapped ? null : mapped.path;
+        long aliasNanos = System.nanoTime() - start;
+        String moduleId = null == mappedPath ? this.getPath() : mappedPath;
+
+        start = System.nanoTime();
+        List<String> targets = config.requirePaths.getTargets(moduleId);
+        PsiElement result = resolveTargets(targets);
+        component.statistics.recordProbe("probeResolveRequirePath", System.nanoTime() - start, null != result);
+
+        if (targets.isEmpty()) {
+            start = System.nanoTime();
+            Package pkg = config.packageConfig.findPackage(moduleId);
+            if (null != pkg) {
+                result = resolvePackage(pkg, moduleId);
+            }
+            component.statistics.recordProbe("probeResolvePackage", System.nanoTime() - start, null != result);
 
-                targetFile = component.getBaseUrlPath(false)
-                        .findFileByRelativePath(pkg.location + "/" + moduleFilePath + ".js");
-                if (null != targetFile) {
-                    return getPsiManager().findFile(targetFile);
-                }
+            if (null == pkg && null != mappedPath) {
+                start = System.nanoTime();
+                result = resolveTarget(mappedPath.startsWith("/") ? mappedPath : '/' + mappedPath);
+                aliasNanos += System.nanoTime() - start;
             }
         }
+        component.statistics.recordProbe("probeResolveRequireAlias", aliasNanos, null != mappedPath && null != result);
 
-        return null;
+        return result;
     }
 
     @Nullable
-    protected PsiElement probeResolveRequireAlias() {
-        String requireMapModule = FileUtils.removeExt(element.getContainingFile().getVirtualFile().getPath().replace(
-                component.getWebDir(this.getElementFile()).getPath() + '/',
-                ""
-        ), ".js");
-
-        RequirePathAlias alias = component.requireMap.getAliasByModule(requireMapModule, this.getPath());
-        if (null != alias) {
-            VirtualFile targetFile = FileUtils.findFileByPath(component.getWebDir(getElementFile()), alias.path);
-            if (null != targetFile) {
-                return getPsiManager().findFile(targetFile);
+    protected PsiElement resolveTargets(List<String> targets) {
+        Set<String> seen = new HashSet<String>();
+        for (String target : targets) {
+            if (!seen.add(target)) {
+                continue;
+            }
+            PsiElement result = resolveTarget(target);
+            if (null != result) {
+                return result;
             }
         }
 
@@ -179,8 +191,59 @@ public class Path {
     }
 
     @Nullable
-    protected PsiElement probeResolveRequirePath() {
-        return component.requirePaths.resolve(this);
+    protected PsiElement resolvePackage(Package pkg, String moduleId) {
+        if (moduleId.equals(pkg.name) && null != pkg.mainFile && pkg.mainFile.isValid()) {
+            return getPsiManager().findFile(pkg.mainFile);
+        }
+
+        return resolveTarget(PackageConfig.getTarget(pkg, moduleId));
+    }
+
+    @Nullable
+    public PsiElement resolveTarget(String target) {
+        if (target.startsWith("http") || target.startsWith("//")) {
+            return new PsiUriElement(this.element, target);
+        }
+
+        VirtualFile targetFile = null;
+        if (target.startsWith("/")) {
+            targetFile = FileUtils.findFileByPath(getWebDir(), target);
+        } else {
+            if (target.startsWith(".")) {
+                PsiDirectory fileDirectory = element.getContainingFile().getContainingDirectory();
+                if (null != fileDirectory) {
+                    targetFile = FileUtils.findFileByPath(fileDirectory.getVirtualFile(), target);
+                }
+            }
+            VirtualFile baseUrl = component.getBaseUrlPath(true);
+            if (null == targetFile && null != baseUrl) {
+                targetFile = FileUtils.findFileByPath(baseUrl, target);
+                if (null == targetFile && null != this.getModule()) {
+                    targetFile = FileUtils.findFileByPath(baseUrl, target.concat(".").concat(this.getModule()));
+                }
+            }
+        }
+
+        return null == targetFile ? null : getPsiManager().findFile(targetFile);
+    }
+
+    protected String getRequestingModuleId() {
+        VirtualFile elementFile = this.getElementFile();
+        VirtualFile webDir = getWebDir();
+        if (null == elementFile || null == webDir) {
+            return "";
+        }
+
+        return FileUtils.removeExt(elementFile.getPath().replace(webDir.getPath() + '/', ""), ".js");
+    }
+
+    @Nullable
+    protected VirtualFile getWebDir() {
+        if (null == webDir) {
+            webDir = component.getWebDir(getElementFile());
+        }
+
+        return webDir;
     }
 
     @NotNull
@@ -236,7 +299,7 @@ public class Path {
 
     @Nullable
     protected PsiElement resolveAbsolutePath() {
-        VirtualFile targetFile = FileUtils.findFileByPath(component.getWebDir(getElementFile()), this.getPath());
+        VirtualFile targetFile = FileUtils.findFileByPath(getWebDir(), this.getPath());
         if (null != targetFile) {
             return getPsiManager().findFile(targetFile);
         } else {
@@ -268,14 +331,32 @@ public class Path {
         if (runtime == null) {
             return null;
         }
-        String result = runtime.resolvePath(this.getOriginValue());
+        String result;
+        if (element.getParent() instanceof JSArrayLiteralExpression) {
+            // Resolve the whole dependency array at once, the sibling literals are resolved next anyway
+            result = runtime.resolvePaths(getDependencyArrayValues()).get(this.getOriginValue());
+        } else {
+            result = runtime.resolvePath(this.getOriginValue());
+        }
         if (result == null) {
-            component.showInfoNotification("Plugin failed to resolve with requirejs.", NotificationType.ERROR);
+            component.diagnostics.unresolved(this.getOriginValue());
             return null;
         }
         return result;
     }
 
+    protected List<String> getDependencyArrayValues() {
+        List<String> values = new ArrayList<String>();
+        values.add(this.getOriginValue());
+        for (JSExpression expression : ((JSArrayLiteralExpression) element.getParent()).getExpressions()) {
+            if (expression instanceof JSLiteralExpression && ((JSLiteralExpression) expression).isQuotedLiteral()) {
+                values.add(RequirejsProjectComponent.dequote(expression.getText()));
+            }
+        }
+
+        return values;
+    }
+
     protected VirtualFile getElementFile() {
         return element
             .getContainingFile()
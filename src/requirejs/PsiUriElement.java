@@ -48,4 +48,21 @@ public class PsiUriElement extends FakePsiElement {
     public String getPresentableText() {
         return this.getNormalizedUri();
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PsiUriElement)) {
+            return false;
+        }
+        PsiUriElement other = (PsiUriElement) o;
+        return originalUri.equals(other.originalUri) && parent.equals(other.parent);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * originalUri.hashCode() + parent.hashCode();
+    }
 }
@@ -0,0 +1,93 @@
+package requirejs;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Snapshot of the parsed require.config(). The parser fills a {@link Builder} and publishes the
+ * result in one volatile write, so readers never lock and never see a half parsed config.
+ * Sections are not modified once built: an incremental reparse builds a new snapshot, sharing the
+ * sections it did not touch with the previous one.
+ */
+public class RequireConfig {
+    /**
+     * baseUrl of the config without leading and trailing slashes, null if the config does not set it.
+     */
+    @Nullable
+    public final String baseUrl;
+    public final RequirePaths requirePaths;
+    public final RequireMap requireMap;
+    public final PackageConfig packageConfig;
+    /**
+     * False for the empty snapshot used until the config file was parsed successfully.
+     */
+    public final boolean parsed;
+    /**
+     * Directory of the config file relative to the web dir, the base url when baseUrl is not set.
+     * Null for the empty snapshot.
+     */
+    @Nullable
+    public final String configDirBaseUrl;
+
+    public RequireConfig(
+            @Nullable String baseUrl,
+            RequirePaths requirePaths,
+            RequireMap requireMap,
+            PackageConfig packageConfig,
+            boolean parsed,
+            @Nullable String configDirBaseUrl
+    ) {
+        this.baseUrl = baseUrl;
+        this.requirePaths = requirePaths;
+        this.requireMap = requireMap;
+        this.packageConfig = packageConfig;
+        this.parsed = parsed;
+        this.configDirBaseUrl = configDirBaseUrl;
+    }
+
+    public static RequireConfig empty(RequirejsProjectComponent component) {
+        return new RequireConfig(null, new RequirePaths(component), new RequireMap(), new PackageConfig(component), false, null);
+    }
+
+    public static class Builder {
+        public String baseUrl;
+        public RequirePaths requirePaths;
+        public RequireMap requireMap;
+        public PackageConfig packageConfig;
+        public String configDirBaseUrl;
+        /**
+         * Snapshot the builder started from, null for a full parse.
+         */
+        @Nullable
+        private final RequireConfig previous;
+
+        public Builder(RequirejsProjectComponent component) {
+            previous = null;
+            requirePaths = new RequirePaths(component);
+            requireMap = new RequireMap();
+            packageConfig = new PackageConfig(component);
+            configDirBaseUrl = component.findConfigDirBaseUrl();
+        }
+
+        /**
+         * Starts from the sections of config, which must be replaced, not modified.
+         */
+        public Builder(RequireConfig config) {
+            previous = config;
+            baseUrl = config.baseUrl;
+            requirePaths = config.requirePaths;
+            requireMap = config.requireMap;
+            packageConfig = config.packageConfig;
+            configDirBaseUrl = config.configDirBaseUrl;
+        }
+
+        public RequireConfig build() {
+            if (null == previous || packageConfig != previous.packageConfig || !Objects.equals(baseUrl, previous.baseUrl)) {
+                packageConfig = packageConfig.resolveMainFiles(packageConfig.component.findBaseUrlPath(baseUrl));
+            }
+
+            return new RequireConfig(baseUrl, requirePaths, requireMap, packageConfig, true, configDirBaseUrl);
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package requirejs;
+
+import com.intellij.openapi.util.TextRange;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds the requirejs config object literal by scanning the raw file text, so a large
+ * config file does not need its whole AST built just to read the config.
+ *
+ * Recognized forms, matching what {@link RequirejsProjectComponent#isRequirejsConfigObject} accepts:
+ * require({...}), requirejs({...}), require.config({...}), requirejs.config({...})
+ * and require = {...} / var require = {...}.
+ * Words inside strings, template literals, regular expressions and comments are skipped.
+ * Where the text cannot be tokenized reliably, an unterminated string or a '/' after ')' which may
+ * be a division as well as a regular expression, the locator gives up and the caller parses the AST.
+ */
+public class RequireConfigLocator {
+    private static final String REGEX_PRECEDING_CHARS = "(,=:[!&|?{};~+-*%<>^";
+    private static final List<String> REGEX_PRECEDING_WORDS = Arrays.asList(
+            "return", "typeof", "instanceof", "in", "of", "new", "delete", "void", "throw", "case", "do", "else", "yield"
+    );
+
+    private final CharSequence text;
+    private final int length;
+    /**
+     * Last character before the current offset which is not whitespace or inside a comment, 0 at the start.
+     * Words, literals and regular expressions are recorded as 'a', values which a '/' divides.
+     */
+    private char previous;
+    /**
+     * Range of the word recorded in previous, empty if previous is not a word.
+     */
+    private int previousWordStart;
+    private int previousWordEnd;
+    private boolean unsupported;
+
+    public RequireConfigLocator(CharSequence text) {
+        this.text = text;
+        this.length = text.length();
+    }
+
+    /**
+     * Returns the range of the first config object literal, braces included, or null if there is none
+     * or the text could not be tokenized up to it.
+     */
+    @Nullable
+    public TextRange findConfigObject() {
+        int offset = 0;
+        while (offset < length && !unsupported) {
+            char c = text.charAt(offset);
+            if (c == 'r' && isWordStart(offset)) {
+                int wordEnd = matchRequireWord(offset);
+                if (wordEnd != -1) {
+                    int objectStart = matchConfigObjectStart(wordEnd);
+                    if (objectStart != -1) {
+                        int objectEnd = skipBalanced(objectStart);
+                        if (objectEnd != -1 && !unsupported) {
+                            return new TextRange(objectStart, objectEnd);
+                        }
+                        return null;
+                    }
+                }
+            }
+            offset = skipToken(offset);
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the offset after the token starting at offset: a string, template literal, regular
+     * expression, comment, word or single character.
+     */
+    private int skipToken(int offset) {
+        char c = text.charAt(offset);
+        if (Character.isWhitespace(c)) {
+            return offset + 1;
+        }
+        if (c == '/' && offset + 1 < length && (text.charAt(offset + 1) == '/' || text.charAt(offset + 1) == '*')) {
+            return skipComment(offset);
+        }
+
+        int end;
+        if (c == '\'' || c == '"') {
+            end = skipString(offset);
+        } else if (c == '`') {
+            end = skipTemplate(offset);
+        } else if (c == '/' && isRegexAllowed()) {
+            end = skipRegex(offset);
+        } else if (Character.isJavaIdentifierPart(c)) {
+            end = skipIdentifier(offset);
+            setPrevious('a', offset, end);
+            return end;
+        } else {
+            setPrevious(c, 0, 0);
+            return offset + 1;
+        }
+        setPrevious('a', 0, 0);
+
+        return end;
+    }
+
+    private boolean isRegexAllowed() {
+        if (previous == ')') {
+            unsupported = true;
+            return false;
+        }
+
+        return previous == 0 || previous == '}' || REGEX_PRECEDING_CHARS.indexOf(previous) != -1 || isPreviousRegexWord();
+    }
+
+    private boolean isPreviousRegexWord() {
+        int wordLength = previousWordEnd - previousWordStart;
+        for (String word : REGEX_PRECEDING_WORDS) {
+            if (word.length() == wordLength && regionMatches(previousWordStart, word)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void setPrevious(char c, int wordStart, int wordEnd) {
+        previous = c;
+        previousWordStart = wordStart;
+        previousWordEnd = wordEnd;
+    }
+
+    private boolean isWordStart(int offset) {
+        if (offset == 0) {
+            return true;
+        }
+        char prev = text.charAt(offset - 1);
+        return !Character.isJavaIdentifierPart(prev) && prev != '.';
+    }
+
+    private int matchRequireWord(int offset) {
+        int end;
+        if (regionMatches(offset, "requirejs")) {
+            end = offset + "requirejs".length();
+        } else if (regionMatches(offset, "require")) {
+            end = offset + "require".length();
+        } else {
+            return -1;
+        }
+        if (end < length && Character.isJavaIdentifierPart(text.charAt(end))) {
+            return -1;
+        }
+
+        return end;
+    }
+
+    private int matchConfigObjectStart(int offset) {
+        offset = skipWhitespaceAndComments(offset);
+        if (offset >= length) {
+            return -1;
+        }
+        char c = text.charAt(offset);
+        if (c == '.') {
+            offset = skipWhitespaceAndComments(offset + 1);
+            if (!regionMatches(offset, "config")) {
+                return -1;
+            }
+            offset = skipWhitespaceAndComments(offset + "config".length());
+            if (offset >= length || text.charAt(offset) != '(') {
+                return -1;
+            }
+            return matchObjectStart(offset + 1);
+        }
+        if (c == '(') {
+            return matchObjectStart(offset + 1);
+        }
+        if (c == '=' && (offset + 1 >= length || text.charAt(offset + 1) != '=')) {
+            return matchObjectStart(offset + 1);
+        }
+
+        return -1;
+    }
+
+    private int matchObjectStart(int offset) {
+        offset = skipWhitespaceAndComments(offset);
+        if (offset < length && text.charAt(offset) == '{') {
+            return offset;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the offset after the brace closing the one at offset, or -1 if it is never closed.
+     */
+    private int skipBalanced(int offset) {
+        int depth = 0;
+        while (offset < length && !unsupported) {
+            char c = text.charAt(offset);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                depth--;
+                if (depth == 0) {
+                    setPrevious('}', 0, 0);
+                    return offset + 1;
+                }
+            }
+            offset = skipToken(offset);
+        }
+
+        return -1;
+    }
+
+    private int skipWhitespaceAndComments(int offset) {
+        while (offset < length) {
+            char c = text.charAt(offset);
+            if (Character.isWhitespace(c)) {
+                offset++;
+            } else if (c == '/' && offset + 1 < length && (text.charAt(offset + 1) == '/' || text.charAt(offset + 1) == '*')) {
+                offset = skipComment(offset);
+            } else {
+                break;
+            }
+        }
+
+        return offset;
+    }
+
+    private int skipString(int offset) {
+        char quote = text.charAt(offset);
+        offset++;
+        while (offset < length) {
+            char c = text.charAt(offset);
+            if (c == '\\') {
+                offset += 2;
+                continue;
+            }
+            if (c == quote) {
+                return offset + 1;
+            }
+            if (c == '\n') {
+                break;
+            }
+            offset++;
+        }
+        unsupported = true;
+
+        return length;
+    }
+
+    private int skipTemplate(int offset) {
+        offset++;
+        while (offset < length && !unsupported) {
+            char c = text.charAt(offset);
+            if (c == '\\') {
+                offset += 2;
+                continue;
+            }
+            if (c == '`') {
+                return offset + 1;
+            }
+            if (c == '$' && offset + 1 < length && text.charAt(offset + 1) == '{') {
+                setPrevious((char) 0, 0, 0);
+                offset = skipBalanced(offset + 1);
+                if (offset == -1) {
+                    break;
+                }
+                continue;
+            }
+            offset++;
+        }
+        unsupported = true;
+
+        return length;
+    }
+
+    private int skipRegex(int offset) {
+        offset++;
+        boolean inClass = false;
+        while (offset < length) {
+            char c = text.charAt(offset);
+            if (c == '\\') {
+                offset += 2;
+                continue;
+            }
+            if (c == '\n') {
+                break;
+            }
+            if (c == '[') {
+                inClass = true;
+            } else if (c == ']') {
+                inClass = false;
+            } else if (c == '/' && !inClass) {
+                return skipIdentifier(offset + 1);
+            }
+            offset++;
+        }
+        unsupported = true;
+
+        return length;
+    }
+
+    private int skipComment(int offset) {
+        if (text.charAt(offset + 1) == '/') {
+            while (offset < length && text.charAt(offset) != '\n') {
+                offset++;
+            }
+            return offset;
+        }
+        offset += 2;
+        while (offset + 1 < length) {
+            if (text.charAt(offset) == '*' && text.charAt(offset + 1) == '/') {
+                return offset + 2;
+            }
+            offset++;
+        }
+
+        return length;
+    }
+
+    private int skipIdentifier(int offset) {
+        while (offset < length && Character.isJavaIdentifierPart(text.charAt(offset))) {
+            offset++;
+        }
+
+        return offset;
+    }
+
+    private boolean regionMatches(int offset, String word) {
+        if (offset + word.length() > length) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (text.charAt(offset + i) != word.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
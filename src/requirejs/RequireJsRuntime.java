@@ -1,85 +1,162 @@
 package requirejs;
 
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
 import jdk.nashorn.internal.runtime.ECMAException;
+import org.jetbrains.annotations.Nullable;
 import org.mozilla.javascript.Context;
 import org.mozilla.javascript.EcmaError;
 import org.mozilla.javascript.Function;
+import org.mozilla.javascript.Script;
 import org.mozilla.javascript.Scriptable;
 
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Resolves module ids with require.toUrl() of the real require.js, evaluated with the project config.
+ *
+ * require.js keeps mutable state in its global scope, so a scope is never shared between threads.
+ * Instead there is a small pool of engines, each with its own scope; a resolve borrows an idle engine,
+ * or creates a new one while the pool is below its limit, or waits for one to be returned.
+ * Results are kept in the component's {@link ResolvedPathsCache}, which is bound to the config file's
+ * modification stamp.
+ * require.js and the config are compiled once through the component's {@link CompiledScriptCache} and only
+ * executed into each new scope, so rebuilding the runtime after a config change recompiles the config alone.
+ */
 public class RequireJsRuntime {
+    // Haxor time: require.toUrl() assumes file extensions, so just chuck a '.' at the end and remove it later.
+    private static final String TO_URLS_SOURCE = "(function (ids) {"
+            + " var urls = [];"
+            + " for (var i = 0; i < ids.length; i++) { urls.push(require.toUrl(ids[i] + '.')); }"
+            + " return urls;"
+            + " })";
+    private static final int MAX_ENGINES = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 4));
 
     protected RequirejsProjectComponent component;
-    protected Scriptable globalScope;
-    private Map<String, String> cache = new HashMap<>();
+    protected final String requirePath;
+    protected final String requireConfig;
+
+    private final ResolvedPathsCache cache;
+    private final long configStamp;
+    private final Script requireScript;
+    private final Script configScript;
+    private final BlockingQueue<Engine> idleEngines = new ArrayBlockingQueue<>(MAX_ENGINES);
+    private final AtomicInteger enginesCount = new AtomicInteger();
 
     public RequireJsRuntime(RequirejsProjectComponent component, String requirePath, String requireConfig) {
-        withContext((ctx) -> {
-            this.component = component;
-            this.globalScope = initScope(ctx);
-            initRequireJs(ctx, requirePath, requireConfig);
-            return null;
-        });
+        this.component = component;
+        this.requirePath = requirePath;
+        this.requireConfig = requireConfig;
+        this.cache = component.resolvedPathsCache;
+        // Taken before the config is read: results are never tagged with a stamp newer than the text they come from
+        VirtualFile configFile = LocalFileSystem.getInstance().findFileByPath(requireConfig);
+        this.configStamp = null != configFile && configFile.isValid() ? configFile.getModificationStamp() : -1;
+        // Loaded once, so engines created later evaluate the same config text
+        this.requireScript = withContext((ctx) -> loadScript(ctx, requirePath));
+        this.configScript = withContext((ctx) -> loadScript(ctx, requireConfig));
+
+        // The first engine is created eagerly so config errors are reported once, up front
+        enginesCount.incrementAndGet();
+        idleEngines.add(withContext((ctx) -> new Engine(ctx, true)));
     }
 
-    private Scriptable initScope(Context ctx) {
-        Scriptable scope = ctx.initStandardObjects();
-        // Init the window and console objects to kindly avoid reference errors.
-        ctx.evaluateString(scope, "var window = null;", "global", 1, null);
-        ctx.evaluateString(scope, "var console = null;", "global", 1, null);
-        return scope;
+    public String resolvePath(String depName) {
+        return resolvePaths(Collections.singletonList(depName)).get(depName);
     }
 
-    protected void initRequireJs(Context ctx, String requirePath, String requireConfig) {
-        evaluateFile(ctx, requirePath);
-        evaluateFile(ctx, requireConfig);
+    /**
+     * Resolves all given module ids, computing the ones not cached yet with a single require.js call.
+     * Ids which require.js could not resolve are mapped to null.
+     */
+    public Map<String, String> resolvePaths(Collection<String> depNames) {
+        long stamp = getConfigStamp();
+        Map<String, String> paths = new HashMap<>();
+        Set<String> misses = new LinkedHashSet<>();
+        for (String depName : depNames) {
+            String path = cache.get(depName, stamp);
+            if (null == path) {
+                misses.add(depName);
+            } else {
+                paths.put(depName, path);
+            }
+        }
+        if (misses.isEmpty()) {
+            return paths;
+        }
+
+        List<String> missNames = new ArrayList<>(misses);
+        String[] resolved = resolveWithRequire(missNames);
+        for (int i = 0; i < missNames.size(); i++) {
+            cache.put(missNames.get(i), resolved[i], stamp);
+            paths.put(missNames.get(i), resolved[i]);
+        }
+
+        return paths;
     }
 
-    private void evaluateFile(Context ctx, String sourceFile) {
+    private long getConfigStamp() {
+        return configStamp;
+    }
+
+    @Nullable
+    private Script loadScript(Context ctx, String sourceFile) {
         try {
-            InputStreamReader in = new InputStreamReader(new FileInputStream(sourceFile));
-            ctx.evaluateReader(globalScope, in, sourceFile, 1, null);
+            return component.compiledScriptCache.getScript(ctx, sourceFile);
         } catch (IOException e) {
             component.showErrorConfigNotification("IOException occurred while evaluating file '" + sourceFile
                     + "'! Exception: \n\t" + e.getMessage());
-        } catch (ECMAException | EcmaError e) {
-            component.showErrorConfigNotification("Got js error evaluating file '" + sourceFile
-                    + "'! Exception: \n\t" + e.getMessage());
+            return null;
         }
     }
 
-    public String resolvePath(String depName) {
-        if (cache.containsKey(depName)) {
-            return cache.get(depName);
+    private String[] resolveWithRequire(List<String> depNames) {
+        Engine engine = acquireEngine();
+        try {
+            return withContext((ctx) -> engine.toUrls(ctx, depNames));
+        } finally {
+            idleEngines.offer(engine);
         }
-        String path = resolveWithRequire(depName);
-        cache.put(depName, path);
-        return path;
     }
 
-    private String resolveWithRequire(String depName) {
-        return withContext( (ctx) -> {
-            Scriptable require = (Scriptable) globalScope.get("require", globalScope);
-            Object toUrl = require.get("toUrl", require);
-            if (!(toUrl instanceof Function)) {
-                component.showErrorConfigNotification("Failed to get require.toUrl() method (check your version of require?).");
-                return null;
+    private Engine acquireEngine() {
+        Engine engine = idleEngines.poll();
+        if (null != engine) {
+            return engine;
+        }
+        if (enginesCount.incrementAndGet() <= MAX_ENGINES) {
+            try {
+                return withContext((ctx) -> new Engine(ctx, false));
+            } catch (RuntimeException e) {
+                enginesCount.decrementAndGet();
+                throw e;
             }
-            component.showDebugNotification("Attempting to load module '" + depName + "' from require config.");
-            // Haxor time: require.toUrl() assumes file extensions, so just chuck a '.' at the end and remove it later.
-            Object args[] = { depName + "." };
-            Function f = (Function)toUrl;
-            Object result = f.call(ctx, globalScope, require, args);
-            String path = Context.toString(result);
-            path = path.replaceAll("\\.$", "");
-            component.showDebugNotification("Looking for module '" + depName + "' at path '" + component.getConfigFileDir().toString() + "/" + path + "'");
-            return path;
-        });
+        }
+        enginesCount.decrementAndGet();
+
+        try {
+            while (null == (engine = idleEngines.poll(50, TimeUnit.MILLISECONDS))) {
+                ProgressManager.checkCanceled();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a require.js engine", e);
+        }
+
+        return engine;
     }
 
     private <T> T withContext(java.util.function.Function<Context, T> fn) {
@@ -90,4 +167,66 @@ public class RequireJsRuntime {
             Context.exit();
         }
     }
+
+    // -------------------------------------------------------------------------
+    // Engine
+    // -------------------------------------------------------------------------
+    private class Engine {
+        private final Scriptable globalScope;
+        private final boolean reportErrors;
+        private Function toUrlsFunction;
+
+        Engine(Context ctx, boolean reportErrors) {
+            this.reportErrors = reportErrors;
+            this.globalScope = initScope(ctx);
+            evaluate(ctx, requireScript, requirePath);
+            evaluate(ctx, configScript, requireConfig);
+        }
+
+        private Scriptable initScope(Context ctx) {
+            Scriptable scope = ctx.initStandardObjects();
+            // Init the window and console objects to kindly avoid reference errors.
+            ctx.evaluateString(scope, "var window = null;", "global", 1, null);
+            ctx.evaluateString(scope, "var console = null;", "global", 1, null);
+            return scope;
+        }
+
+        private void evaluate(Context ctx, @Nullable Script script, String sourceFile) {
+            if (null == script) {
+                return;
+            }
+            try {
+                script.exec(ctx, globalScope);
+            } catch (ECMAException | EcmaError e) {
+                if (reportErrors) {
+                    component.showErrorConfigNotification("Got js error evaluating file '" + sourceFile
+                            + "'! Exception: \n\t" + e.getMessage());
+                }
+            }
+        }
+
+        String[] toUrls(Context ctx, List<String> depNames) {
+            String[] paths = new String[depNames.size()];
+            Object require = globalScope.get("require", globalScope);
+            if (!(require instanceof Scriptable) || !(((Scriptable) require).get("toUrl", (Scriptable) require) instanceof Function)) {
+                component.showErrorConfigNotification("Failed to get require.toUrl() method (check your version of require?).");
+                return paths;
+            }
+            if (component.diagnostics.isDebugEnabled()) {
+                component.showDebugNotification("Attempting to load modules '" + StringUtil.join(depNames, "', '") + "' from require config.");
+            }
+            if (null == toUrlsFunction) {
+                toUrlsFunction = (Function) ctx.evaluateString(globalScope, TO_URLS_SOURCE, "toUrls", 1, null);
+            }
+            Object args[] = { ctx.newArray(globalScope, depNames.toArray()) };
+            Scriptable result = (Scriptable) toUrlsFunction.call(ctx, globalScope, globalScope, args);
+            for (int i = 0; i < paths.length; i++) {
+                paths[i] = Context.toString(result.get(i, result)).replaceAll("\\.$", "");
+            }
+            if (component.diagnostics.isDebugEnabled()) {
+                component.showDebugNotification("Looking for modules at paths '" + StringUtil.join(paths, "', '") + "' relative to '" + component.getConfigFileDir().toString() + "'");
+            }
+            return paths;
+        }
+    }
 }
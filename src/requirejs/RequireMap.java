@@ -2,20 +2,81 @@ package requirejs;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
 
 public class RequireMap {
-    public Map<String, RequireMapModule> modules = new HashMap<String, RequireMapModule>();
-
-    public void clear() {
-        modules.clear();
-    }
+    private final Map<String, RequireMapModule> modules = new HashMap<String, RequireMapModule>();
 
     public void addModule(RequireMapModule module) {
         this.modules.put(module.module, module);
     }
 
+    /**
+     * Returns a new map with the modules of parsed, keeping the instances of the modules whose aliases did not change.
+     */
+    public RequireMap merge(RequireMap parsed) {
+        RequireMap merged = new RequireMap();
+        for (RequireMapModule module : parsed.modules.values()) {
+            RequireMapModule current = modules.get(module.module);
+            merged.addModule(null != current && current.hasSameAliases(module) ? current : module);
+        }
+
+        return merged;
+    }
+
+    /**
+     * Returns the aliases, of any module, which were added, removed or mapped elsewhere in other,
+     * a result of {@link #merge}.
+     */
+    public Set<String> diff(RequireMap other) {
+        Set<String> changed = new HashSet<String>();
+        Set<String> moduleNames = new HashSet<String>(modules.keySet());
+        moduleNames.addAll(other.modules.keySet());
+        for (String moduleName : moduleNames) {
+            RequireMapModule module = modules.get(moduleName);
+            RequireMapModule otherModule = other.modules.get(moduleName);
+            if (module == otherModule) {
+                continue;
+            }
+            if (null != module) {
+                changed.addAll(module.getAliases());
+            }
+            if (null != otherModule) {
+                changed.addAll(otherModule.getAliases());
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Returns the aliases, of any module, whose target matches.
+     */
+    public Set<String> findAliases(Predicate<String> target) {
+        Set<String> aliases = new HashSet<String>();
+        for (RequireMapModule module : modules.values()) {
+            for (String alias : module.getAliases()) {
+                String path = module.getAlias(alias).path;
+                if (null != path && target.test(path)) {
+                    aliases.add(alias);
+                }
+            }
+        }
+
+        return aliases;
+    }
+
+    /**
+     * Whether the map holds aliases for specific modules, not only for "*".
+     */
+    public boolean hasModuleScopes() {
+        return modules.size() > (modules.containsKey("*") ? 1 : 0);
+    }
+
     public RequirePathAlias getAliasByModule(String moduleName, String aliasString) {
         RequirePathAlias alias = null;
         if (modules.containsKey(moduleName)) {
@@ -6,7 +6,7 @@ import java.util.Set;
 
 public class RequireMapModule {
     public String module;
-    public Map<String, RequirePathAlias> aliases = new HashMap<String, RequirePathAlias>();
+    private final Map<String, RequirePathAlias> aliases = new HashMap<String, RequirePathAlias>();
 
     public void addAlias(RequirePathAlias alias) {
         aliases.put(alias.alias, alias);
@@ -16,6 +16,20 @@ public class RequireMapModule {
         return aliases.get(aliasString);
     }
 
+    public boolean hasSameAliases(RequireMapModule other) {
+        if (!aliases.keySet().equals(other.aliases.keySet())) {
+            return false;
+        }
+        for (RequirePathAlias alias : aliases.values()) {
+            String otherPath = other.aliases.get(alias.alias).path;
+            if (null == alias.path ? null != otherPath : !alias.path.equals(otherPath)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     public Set<String> getAliases() {
         return aliases.keySet();
     }
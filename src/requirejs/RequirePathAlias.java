@@ -1,12 +1,29 @@
 package requirejs;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class RequirePathAlias {
     public String alias;
     public String path;
+    /**
+     * Further paths of a fallback array ('alias': ['cdn/path', 'local/path']), in declaration order after path.
+     */
+    public List<String> fallbacks = new ArrayList<String>();
 
     public RequirePathAlias() {}
     public RequirePathAlias(String alias, String path) {
         this.alias = alias;
         this.path = path;
     }
+
+    public List<String> getPaths() {
+        List<String> paths = new ArrayList<String>();
+        if (null != path) {
+            paths.add(path);
+        }
+        paths.addAll(fallbacks);
+
+        return paths;
+    }
 }
@@ -4,64 +4,125 @@ import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class RequirePaths {
     public RequirejsProjectComponent component;
 
-    public Map<String, RequirePathAlias> paths = new ConcurrentHashMap<String, RequirePathAlias>();
+    private final Map<String, RequirePathAlias> paths = new ConcurrentHashMap<String, RequirePathAlias>();
+    private final SegmentTrie<RequirePathAlias> aliases = new SegmentTrie<RequirePathAlias>();
 
     public RequirePaths(RequirejsProjectComponent requirejsProjectComponent) {
         component = requirejsProjectComponent;
     }
 
-    public void clear() {
-        paths.clear();
-    }
-
     public boolean isEmpty() {
         return paths.isEmpty();
     }
 
+    public Map<String, RequirePathAlias> getPaths() {
+        return Collections.unmodifiableMap(paths);
+    }
+
     public void addPath(RequirePathAlias pathAlias) {
+        if (null == pathAlias.alias) {
+            return;
+        }
         paths.put(pathAlias.alias, pathAlias);
+        aliases.put(pathAlias.alias, pathAlias);
     }
 
-    public PsiElement resolve(Path path) {
-        RequirePathAlias fileAlias = paths.get(path.getPath());
-        if (null != fileAlias) {
-            path.setPath(fileAlias.path);
-            return path.resolve();
+    /**
+     * Returns new paths with the aliases of parsed, keeping the instances of the entries which did not change.
+     */
+    public RequirePaths merge(RequirePaths parsed) {
+        RequirePaths merged = new RequirePaths(component);
+        for (RequirePathAlias pathAlias : parsed.paths.values()) {
+            RequirePathAlias current = paths.get(pathAlias.alias);
+            merged.addPath(null != current && current.getPaths().equals(pathAlias.getPaths()) ? current : pathAlias);
         }
 
-        PsiElement result;
+        return merged;
+    }
+
+    /**
+     * Returns the aliases which were added, removed or changed in other, a result of {@link #merge}.
+     */
+    public Set<String> diff(RequirePaths other) {
+        Set<String> changed = new HashSet<String>();
         for (RequirePathAlias pathAlias : paths.values()) {
-            if (path.getPath().startsWith(pathAlias.alias)) {
-                path.setPath(path.getPath().replaceFirst(pathAlias.alias, pathAlias.path));
-                result = path.resolve();
-                if (null != result) {
-                    return result;
-                }
+            if (other.paths.get(pathAlias.alias) != pathAlias) {
+                changed.add(pathAlias.alias);
+            }
+        }
+        for (RequirePathAlias pathAlias : other.paths.values()) {
+            if (paths.get(pathAlias.alias) != pathAlias) {
+                changed.add(pathAlias.alias);
             }
         }
 
-        return null;
+        return changed;
     }
 
-    public List<String> getAllFilesOnPaths() {
+    /**
+     * Rewrites moduleId through the paths config, without touching the file system.
+     * Returns the targets of the alias equal to moduleId, or else of every alias matching whole leading
+     * segments of it, longest first, each target followed by its fallbacks. Empty if no alias applies.
+     */
+    public List<String> getTargets(String moduleId) {
+        List<String> targets = new ArrayList<String>();
+        RequirePathAlias fileAlias = paths.get(moduleId);
+        if (null != fileAlias) {
+            targets.addAll(fileAlias.getPaths());
+            return targets;
+        }
+
+        // Like RequireJS, the longest alias matching whole segments of the module id wins;
+        // shorter ones are only used when its targets do not exist
+        for (RequirePathAlias pathAlias : aliases.findPrefixes(moduleId)) {
+            String rest = moduleId.substring(pathAlias.alias.length());
+            for (String aliasPath : pathAlias.getPaths()) {
+                targets.add(aliasPath + rest);
+            }
+        }
+
+        return targets;
+    }
+
+    /**
+     * Resolves every entry of a paths fallback array declared for the module, in declaration order.
+     */
+    public List<PsiElement> resolveFallbacks(Path path) {
+        List<PsiElement> results = new ArrayList<PsiElement>();
+        RequirePathAlias fileAlias = paths.get(path.getPath());
+        if (null == fileAlias || fileAlias.fallbacks.isEmpty()) {
+            return results;
+        }
+
+        for (String aliasPath : fileAlias.getPaths()) {
+            PsiElement result = path.resolveTarget(aliasPath);
+            if (null != result && !results.contains(result)) {
+                results.add(result);
+            }
+        }
+
+        return results;
+    }
+
+    public List<String> getFilesOnPaths(String prefix) {
         List<String> files = new ArrayList<String>();
         for (RequirePathAlias pathAlias : paths.values()) {
+            if (null == pathAlias.path) {
+                continue;
+            }
             VirtualFile directory = component.resolvePath(pathAlias.path);
             if (null != directory && directory.isDirectory()) {
-                files.addAll(
-                        FileUtils.getAllFilesInDirectory(
-                                directory,
-                                directory.getPath(),
-                                pathAlias.alias
-                        )
-                );
+                files.addAll(component.moduleIndex.getAliasedFilesWithPrefix(directory, pathAlias.alias, prefix));
             }
         }
 
@@ -71,6 +132,9 @@ public class RequirePaths {
     public List<String> getAliasToFiles() {
         List<String> aliases = new ArrayList<String>();
         for (RequirePathAlias pathAlias : paths.values()) {
+            if (null == pathAlias.path) {
+                continue;
+            }
             VirtualFile directory = component.resolvePath(pathAlias.path);
             if (null != directory && !directory.isDirectory()) {
                 aliases.add(pathAlias.alias);
@@ -6,14 +6,28 @@ import com.google.common.collect.Collections2;
 import com.intellij.lang.ASTNode;
 import com.intellij.lang.javascript.JSElementTypes;
 import com.intellij.lang.javascript.JSTokenTypes;
+import com.intellij.lang.javascript.JavascriptLanguage;
+import com.intellij.lang.javascript.psi.JSArgumentList;
+import com.intellij.lang.javascript.psi.JSAssignmentExpression;
+import com.intellij.lang.javascript.psi.JSCallExpression;
+import com.intellij.lang.javascript.psi.JSExpression;
+import com.intellij.lang.javascript.psi.JSObjectLiteralExpression;
+import com.intellij.lang.javascript.psi.JSProperty;
+import com.intellij.lang.javascript.psi.JSVariable;
 import com.intellij.lang.javascript.psi.impl.JSFileImpl;
 import com.intellij.notification.Notification;
 import com.intellij.notification.NotificationType;
 import com.intellij.notification.Notifications;
 import com.intellij.openapi.components.ProjectComponent;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Segment;
+import com.intellij.openapi.util.TextRange;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.vfs.VirtualFileAdapter;
@@ -21,12 +35,20 @@ import com.intellij.openapi.vfs.VirtualFileEvent;
 import com.intellij.openapi.vfs.VirtualFileManager;
 import com.intellij.psi.PsiDirectory;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementResolveResult;
 import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiFileFactory;
 import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiTreeChangeAdapter;
+import com.intellij.psi.PsiTreeChangeEvent;
+import com.intellij.psi.ResolveResult;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiFileRange;
 import com.intellij.psi.impl.source.PsiFileImpl;
 import com.intellij.psi.impl.source.tree.TreeElement;
 import com.intellij.psi.impl.source.xml.XmlFileImpl;
 import com.intellij.psi.tree.TokenSet;
+import com.intellij.psi.util.PsiTreeUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import requirejs.settings.Settings;
@@ -35,45 +57,69 @@ import requirejs.settings.Settings.SettingsListener;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 public class RequirejsProjectComponent implements ProjectComponent, SettingsListener {
     protected Project project;
     protected Settings settings;
     protected boolean settingValidStatus;
-    protected String settingValidVersion;
-    protected String settingVersionLastShowNotification;
+    protected long settingValidModificationCount = -1;
+    protected long settingModificationCountLastShowNotification = -1;
 
     protected final Logger LOG = Logger.getInstance("Requirejs-Plugin");
 
-    protected String requirejsBaseUrl;
-
-    protected RequirePaths requirePaths;
-    protected RequireMap requireMap = new RequireMap();
+    protected volatile RequireConfig config;
+    /**
+     * Range of the config object the last full parse read, tracked through later edits of the file.
+     */
+    protected volatile SmartPsiFileRange parsedConfigObject;
 
     private RequireConfigVfsListener vfsListener;
-    public PackageConfig packageConfig;
-    protected RequireJsRuntime requirejs = null;
+    private RequireConfigPsiListener psiListener;
+    protected long configParseStamp = -1;
+    protected ModulePathIndex moduleIndex;
+    protected DirectoryCache directoryCache;
+    protected ModuleResolveCache resolveCache;
+    protected ResolveDiagnostics diagnostics;
+    protected ResolveStatistics statistics;
+    protected volatile RequireJsRuntime requirejs = null;
+    protected final ResolvedPathsCache resolvedPathsCache = new ResolvedPathsCache();
+    protected final CompiledScriptCache compiledScriptCache = new CompiledScriptCache(this);
 
     public RequirejsProjectComponent(Project project) {
         this.project = project;
         settings = Settings.getInstance(project);
         settings.registerListener(this);
-        requirePaths = new RequirePaths(this);
-        packageConfig = new PackageConfig(this);
+        config = RequireConfig.empty(this);
+        moduleIndex = new ModulePathIndex(this);
+        directoryCache = new DirectoryCache(this);
+        resolveCache = new ModuleResolveCache(this);
+        diagnostics = new ResolveDiagnostics(this);
+        statistics = new ResolveStatistics(this);
     }
 
     @Override
     public void projectOpened() {
         if (isEnabled()) {
             validateSettings();
+            // Parse, index and resolve once indexing is done, instead of on the first completion
+            DumbService.getInstance(project).runWhenSmart(
+                    () -> ProgressManager.getInstance().run(new WarmUpTask(this))
+            );
         }
     }
 
     public void watchConfigFile() {
+        if (vfsListener != null) {
+            return;
+        }
         // Add the Virtual File listener
         vfsListener = new RequireConfigVfsListener();
         VirtualFileManager.getInstance().addVirtualFileListener(vfsListener, project);
+        // Add the PSI listener for edits in the editor
+        psiListener = new RequireConfigPsiListener();
+        PsiManager.getInstance(project).addPsiTreeChangeListener(psiListener, project);
     }
 
     public void stopWatchConfigFile() {
@@ -81,10 +127,14 @@ public class RequirejsProjectComponent implements ProjectComponent, SettingsList
             return;
         }
         VirtualFileManager.getInstance().removeVirtualFileListener(vfsListener);
+        PsiManager.getInstance(project).removePsiTreeChangeListener(psiListener);
+        vfsListener = null;
+        psiListener = null;
     }
 
     @Override
     public void projectClosed() {
+        compiledScriptCache.clear();
     }
 
     @Override
@@ -99,6 +149,7 @@ public class RequirejsProjectComponent implements ProjectComponent, SettingsList
     @Override
     public void settingsChanged(Settings state) {
         this.settings = state;
+        clearParse();
         stopWatchConfigFile();
         initComponent();
     }
@@ -114,6 +165,10 @@ public class RequirejsProjectComponent implements ProjectComponent, SettingsList
         return "RequirejsProjectComponent";
     }
 
+    public ResolveStatistics getStatistics() {
+        return statistics;
+    }
+
     public Logger getLogger() {
         return LOG;
     }
@@ -123,9 +178,10 @@ public class RequirejsProjectComponent implements ProjectComponent, SettingsList
     }
 
     public boolean isSettingsValid() {
-        if (!settings.getVersion().equals(settingValidVersion)) {
+        long modificationCount = settings.getModificationCount();
+        if (modificationCount != settingValidModificationCount) {
             validateSettings();
-            settingValidVersion = settings.getVersion();
+            settingValidModificationCount = modificationCount;
         }
         return settingValidStatus;
     }
@@ -152,23 +208,40 @@ public class RequirejsProjectComponent implements ProjectComponent, SettingsList
     }
 
     public void clearParse() {
-        requirejsBaseUrl = null;
-        requirePaths.clear();
-        requireMap.clear();
-        packageConfig.clear();
+        config = RequireConfig.empty(this);
+        resolveCache.clear();
+    }
+
+    /**
+     * The current config snapshot. Read it once and use that instance for the whole operation.
+     */
+    public RequireConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * The current config snapshot, parsing the config file first if requested and not parsed yet.
+     */
+    public RequireConfig getConfig(boolean parseConfig) {
+        if (parseConfig && !config.parsed) {
+            parseRequirejsConfig();
+        }
+
+        return config;
     }
 
     protected void showErrorConfigNotification(String content) {
-        if (!settings.getVersion().equals(settingVersionLastShowNotification)) {
-            settingVersionLastShowNotification = settings.getVersion();
+        if (settings.getModificationCount() != settingModificationCountLastShowNotification) {
+            settingModificationCountLastShowNotification = settings.getModificationCount();
             showInfoNotification(content, NotificationType.ERROR);
         }
     }
 
+    /**
+     * Buffered, shown as part of a periodic summary, see {@link ResolveDiagnostics}.
+     */
     protected void showDebugNotification(String content) {
-        if (settings.enableLogging) {
-            showInfoNotification(content, NotificationType.INFORMATION);
-        }
+        diagnostics.debug(content);
     }
 
     public VirtualFile getWebDir(VirtualFile elementFile) {
@@ -189,20 +262,23 @@ public class RequirejsProjectComponent implements ProjectComponent, SettingsList
         return getWebDir(null);
     }
 
-    protected VirtualFile findPathInWebDir(String path) {
+    protected VirtualFile findPathInWebDir(final String path) {
         if (settings.publicPath.isEmpty()) {
             return findPathInContentRoot(path);
         }
-        VirtualFile vfWebDir = getWebDir();
-        if (null != vfWebDir) {
-            return vfWebDir.findFileByRelativePath(path);
-        } else {
-            return null;
-        }
+
+        return directoryCache.find("web:" + settings.publicPath + ':' + path, () -> {
+            VirtualFile vfWebDir = getWebDir();
+            if (null != vfWebDir) {
+                return vfWebDir.findFileByRelativePath(path);
+            } else {
+                return null;
+            }
+        });
     }
 
     public VirtualFile getContentRoot() {
-        VirtualFile[] contentRoots = ProjectRootManager.getInstance(project).getContentRoots();
+        VirtualFile[] contentRoots = directoryCache.getContentRoots();
         if (contentRoots.length > 0) {
             return contentRoots[0];
         } else {
@@ -214,8 +290,12 @@ public class RequirejsProjectComponent implements ProjectComponent, SettingsList
         return ProjectRootManager.getInstance(project).getFileIndex().getContentRootForFile(file);
     }
 
-    protected VirtualFile findPathInContentRoot(String path) {
-        VirtualFile[] contentRoots = ProjectRootManager.getInstance(project).getContentRoots();
+    protected VirtualFile findPathInContentRoot(final String path) {
+        return directoryCache.find("content:" + path, () -> findPathInContentRootUncached(path));
+    }
+
+    private VirtualFile findPathInContentRootUncached(String path) {
+        VirtualFile[] contentRoots = directoryCache.getContentRoots();
         if (contentRoots.length > 0) {
             for(VirtualFile contentRoot : contentRoots) {
                 VirtualFile vfPath = contentRoot.findFileByRelativePath(path);
@@ -237,13 +317,14 @@ public class RequirejsProjectComponent implements ProjectComponent, SettingsList
 
     public List<String> getModulesNames() {
         List<String> modules = new ArrayList<String>();
-        if (requirePaths.isEmpty()) {
+        if (config.requirePaths.isEmpty()) {
             if (!parseRequirejsConfig()) {
                 return modules;
             }
         }
-        modules.addAll(requirePaths.getAliasToFiles());
-        Collection<Package> filteredPackages = Collections2.filter(packageConfig.packages, new Predicate<Package>() {
+        RequireConfig config = this.config;
+        modules.addAll(config.requirePaths.getAliasToFiles());
+        Collection<Package> filteredPackages = Collections2.filter(config.packageConfig.getPackages(), new Predicate<Package>() {
             @Override
             public boolean apply(Package aPackage) {
                 return aPackage != null && aPackage.mainExists;
@@ -260,33 +341,49 @@ public class RequirejsProjectComponent implements ProjectComponent, SettingsList
     }
 
     public String getBaseUrl() {
-        if (null == requirejsBaseUrl) {
-            VirtualFile baseUrlPath = getBaseUrlPath(true);
-            if (null != baseUrlPath) {
-                requirejsBaseUrl = baseUrlPath.getPath().replace(getWebDir().getPath(), "");
-                requirejsBaseUrl = StringUtil.trimEnd(requirejsBaseUrl, "/");
-                if (requirejsBaseUrl.startsWith("/")) {
-                    requirejsBaseUrl = requirejsBaseUrl.substring(1);
-                }
-            } else {
-                requirejsBaseUrl = "";
-            }
+        RequireConfig config = getConfig(true);
+        if (null != config.baseUrl) {
+            return config.baseUrl;
+        }
+
+        if (null != config.configDirBaseUrl) {
+            return config.configDirBaseUrl;
+        }
+
+        return findConfigDirBaseUrl();
+    }
+
+    /**
+     * Directory of the config file relative to the web dir, the base url of a config without baseUrl.
+     */
+    protected String findConfigDirBaseUrl() {
+        VirtualFile baseUrlPath = getConfigFileDir();
+        if (null == baseUrlPath) {
+            return "";
+        }
+
+        String baseUrl = baseUrlPath.getPath().replace(getWebDir().getPath(), "");
+        baseUrl = StringUtil.trimEnd(baseUrl, "/");
+        if (baseUrl.startsWith("/")) {
+            baseUrl = baseUrl.substring(1);
         }
 
-        return requirejsBaseUrl;
+        return baseUrl;
     }
 
     public VirtualFile getBaseUrlPath(boolean parseConfig) {
-        if (null == requirejsBaseUrl) {
-            if (parseConfig) {
-                parseRequirejsConfig();
-            }
-            if (null == requirejsBaseUrl) {
-                return getConfigFileDir();
-            }
+        return findBaseUrlPath(getConfig(parseConfig).baseUrl);
+    }
+
+    /**
+     * Directory of the given config baseUrl, or of the config file if it is null.
+     */
+    protected VirtualFile findBaseUrlPath(@Nullable String baseUrl) {
+        if (null == baseUrl) {
+            return getConfigFileDir();
         }
 
-        return findPathInWebDir(requirejsBaseUrl);
+        return findPathInWebDir(baseUrl);
     }
 
     protected VirtualFile getConfigFileDir() {
@@ -321,10 +418,17 @@ public class RequirejsProjectComponent implements ProjectComponent, SettingsList
 
     @Nullable
     protected RequireJsRuntime getRequireRuntime() {
-        if (requirejs == null) {
-            requirejs = makeRequireRuntime();
+        RequireJsRuntime runtime = requirejs;
+        if (runtime == null) {
+            synchronized (this) {
+                runtime = requirejs;
+                if (runtime == null) {
+                    runtime = makeRequireRuntime();
+                    requirejs = runtime;
+                }
+            }
         }
-        return requirejs;
+        return runtime;
     }
 
     private RequireJsRuntime makeRequireRuntime() {
@@ -343,7 +447,7 @@ public class RequirejsProjectComponent implements ProjectComponent, SettingsList
 
     public boolean parseRequirejsConfig() {
         // Clear this flag so we can see any notifications on file change
-        settingVersionLastShowNotification = null;
+        settingModificationCountLastShowNotification = -1;
         
         VirtualFile mainJsVirtualFile = findPathInWebDir(settings.configFilePath);
         if (null == mainJsVirtualFile) {
@@ -353,15 +457,23 @@ public class RequirejsProjectComponent implements ProjectComponent, SettingsList
         } else {
             PsiFile mainJs = PsiManager.getInstance(project).findFile(mainJsVirtualFile);
             if (mainJs instanceof JSFileImpl || mainJs instanceof XmlFileImpl) {
-                Map<String, VirtualFile> allConfigPaths;
-                packageConfig.clear();
-                requireMap.clear();
-                requirePaths.clear();
-                if (((PsiFileImpl) mainJs).getTreeElement() == null) {
-                    parseMainJsFile(((PsiFileImpl) mainJs).calcTreeElement());
-                } else {
-                    parseMainJsFile(((PsiFileImpl) mainJs).getTreeElement());
+                RequireConfig.Builder parsed = new RequireConfig.Builder(this);
+                TextRange configObjectRange = null;
+                if (mainJs instanceof JSFileImpl) {
+                    configObjectRange = parseConfigFromText(mainJs, parsed);
                 }
+                if (null == configObjectRange) {
+                    if (((PsiFileImpl) mainJs).getTreeElement() == null) {
+                        configObjectRange = parseMainJsFile(((PsiFileImpl) mainJs).calcTreeElement(), parsed);
+                    } else {
+                        configObjectRange = parseMainJsFile(((PsiFileImpl) mainJs).getTreeElement(), parsed);
+                    }
+                }
+                config = parsed.build();
+                parsedConfigObject = null == configObjectRange
+                        ? null
+                        : SmartPointerManager.getInstance(project).createSmartPsiFileRangePointer(mainJs, configObjectRange);
+                configParseStamp = getConfigStamp(mainJsVirtualFile);
             } else {
                 this.showErrorConfigNotification("Config file wrong format");
                 LOG.debug("Config file wrong format");
@@ -371,56 +483,69 @@ public class RequirejsProjectComponent implements ProjectComponent, SettingsList
         return true;
     }
 
-    public void parseMainJsFile(TreeElement node) {
+    /**
+     * Locates the config object in the raw file text and builds a tree for that object only,
+     * so the AST of a large config file is not loaded. Returns the range of the config object
+     * in the file, null if no config call was found.
+     */
+    @Nullable
+    protected TextRange parseConfigFromText(PsiFile configFile, RequireConfig.Builder parsed) {
+        CharSequence text = configFile.getViewProvider().getContents();
+        TextRange range = new RequireConfigLocator(text).findConfigObject();
+        if (null == range) {
+            return null;
+        }
 
-        TreeElement firstChild = node.getFirstChildNode();
-        if (firstChild != null) {
-            parseMainJsFile(firstChild);
-        }
-
-        TreeElement nextNode = node.getTreeNext();
-        if (nextNode != null) {
-            parseMainJsFile(nextNode);
-        }
-
-        if (node.getElementType() == JSTokenTypes.IDENTIFIER) {
-            if (node.getText().equals("requirejs") || node.getText().equals("require")) {
-                TreeElement treeParent = node.getTreeParent();
-
-                if (null != treeParent) {
-                    ASTNode firstTreeChild = treeParent.findChildByType(JSElementTypes.OBJECT_LITERAL_EXPRESSION);
-                    TreeElement nextTreeElement = treeParent.getTreeNext();
-                    if (null != firstTreeChild) {
-                        parseRequirejsConfig((TreeElement) firstTreeChild
-                            .getFirstChildNode()
-                        );
-                    } else if (null != nextTreeElement && nextTreeElement.getElementType() == JSTokenTypes.DOT) {
-                        nextTreeElement = nextTreeElement.getTreeNext();
-                        if (null != nextTreeElement && nextTreeElement.getText().equals("config")) {
-                            treeParent = nextTreeElement.getTreeParent();
-                            findAndParseConfig(treeParent);
-                        }
-                    } else {
-                        findAndParseConfig(treeParent);
-                    }
-                }
+        PsiFile configObjectFile = PsiFileFactory.getInstance(project).createFileFromText(
+                "requirejsConfig.js",
+                JavascriptLanguage.INSTANCE,
+                "(" + text.subSequence(range.getStartOffset(), range.getEndOffset()) + ")"
+        );
+        JSObjectLiteralExpression configObject = PsiTreeUtil.findChildOfType(configObjectFile, JSObjectLiteralExpression.class);
+        if (null == configObject) {
+            return null;
+        }
+        parseRequirejsConfig((TreeElement) configObject.getNode().getFirstChildNode(), parsed);
+
+        return range;
+    }
+
+    /**
+     * Walks the tree in document order without recursion and stops at the first config object found.
+     * Returns the range of that object, null if there is none.
+     */
+    @Nullable
+    public TextRange parseMainJsFile(TreeElement node, RequireConfig.Builder parsed) {
+        TreeElement stopAt = node.getTreeParent();
+        TreeElement current = node;
+        while (null != current) {
+            if (current.getElementType() == JSElementTypes.OBJECT_LITERAL_EXPRESSION && isRequirejsConfigObject(current.getPsi())) {
+                parseRequirejsConfig(current.getFirstChildNode(), parsed);
+                return current.getTextRange();
             }
+            current = nextInDocumentOrder(current, stopAt);
         }
+
+        return null;
     }
 
-    protected void findAndParseConfig(TreeElement treeParent) {
-        TreeElement nextTreeElement;
-        if (null != treeParent) {
-            nextTreeElement = treeParent.getTreeNext();
-            if (null != nextTreeElement) {
-                ASTNode nextChild = nextTreeElement.findChildByType(JSElementTypes.OBJECT_LITERAL_EXPRESSION);
-                if (null != nextChild) {
-                    parseRequirejsConfig(
-                            (TreeElement) nextChild.getFirstChildNode()
-                    );
-                }
+    @Nullable
+    protected static TreeElement nextInDocumentOrder(TreeElement node, @Nullable TreeElement stopAt) {
+        TreeElement firstChild = node.getFirstChildNode();
+        if (null != firstChild) {
+            return firstChild;
+        }
+
+        TreeElement current = node;
+        while (null != current && current != stopAt) {
+            TreeElement nextNode = current.getTreeNext();
+            if (null != nextNode) {
+                return nextNode;
             }
+            current = current.getTreeParent();
         }
+
+        return null;
     }
 
     public static String dequote(String text) {
@@ -431,11 +556,13 @@ public class RequirejsProjectComponent implements ProjectComponent, SettingsList
         return text.replaceAll("\"", "").replaceAll("'", "");
     }
 
-    public void parseRequirejsConfig(TreeElement node) {
-        if (null == node) {
-            return ;
+    public void parseRequirejsConfig(TreeElement node, RequireConfig.Builder parsed) {
+        for (TreeElement property = node; null != property; property = property.getTreeNext()) {
+            parseRequirejsConfigProperty(property, parsed);
         }
+    }
 
+    protected void parseRequirejsConfigProperty(TreeElement node, RequireConfig.Builder parsed) {
         try {
             if (node.getElementType() == JSElementTypes.PROPERTY) {
                 TreeElement identifier = (TreeElement) node.findChildByType(JSTokenTypes.IDENTIFIER);
@@ -463,8 +590,7 @@ public class RequirejsProjectComponent implements ProjectComponent, SettingsList
                         }
                         if (null != baseUrl) {
                             LOG.info("Setting baseUrl to '" + baseUrl + "'");
-                            setBaseUrl(baseUrl);
-                            packageConfig.baseUrl = baseUrl;
+                            parsed.baseUrl = normalizeBaseUrl(baseUrl);
                         } else {
                             LOG.debug("BaseUrl not set");
                         }
@@ -473,41 +599,37 @@ public class RequirejsProjectComponent implements ProjectComponent, SettingsList
                                 .findChildByType(JSElementTypes.OBJECT_LITERAL_EXPRESSION);
                         if (null != pathsNode) {
                             parseRequireJsPaths(
-                                    (TreeElement) pathsNode.getFirstChildNode()
+                                    (TreeElement) pathsNode.getFirstChildNode(),
+                                    parsed.requirePaths
                             );
                         }
                     } else if (identifierName.equals("packages")) {
                         TreeElement packages = (TreeElement) node.findChildByType(JSElementTypes.ARRAY_LITERAL_EXPRESSION);
                         LOG.debug("parsing packages");
-                        parsePackages(packages);
-                        LOG.debug("parsing packages done, found " + packageConfig.packages.size() + " packages");
+                        parsePackages(packages, parsed.packageConfig);
+                        LOG.debug("parsing packages done, found " + parsed.packageConfig.getPackages().size() + " packages");
                     } else if (identifierName.equals("map")) {
                         TreeElement mapElement = (TreeElement) node.findChildByType(JSElementTypes.OBJECT_LITERAL_EXPRESSION);
-                        parseMapsConfig(mapElement);
+                        parseMapsConfig(mapElement, parsed.requireMap);
                     }
                 }
             }
         } catch (NullPointerException exception) {
             LOG.error(exception.getMessage(), exception);
         }
-
-        TreeElement next = node.getTreeNext();
-        if (null != next) {
-            parseRequirejsConfig(next);
-        }
     }
 
-    protected void parseMapsConfig(TreeElement mapElement) {
+    protected void parseMapsConfig(TreeElement mapElement, RequireMap requireMap) {
         TreeElement firstMapConfigElement = (TreeElement) mapElement.findChildByType(JSElementTypes.PROPERTY);
-        parseMapConfigElement(firstMapConfigElement);
+        parseMapConfigElement(firstMapConfigElement, requireMap);
     }
 
-    protected void parseMapConfigElement(TreeElement mapConfigElement) {
-        if (null == mapConfigElement) {
-            return;
-        }
+    protected void parseMapConfigElement(TreeElement firstMapConfigElement, RequireMap requireMap) {
+        for (TreeElement mapConfigElement = firstMapConfigElement; null != mapConfigElement; mapConfigElement = mapConfigElement.getTreeNext()) {
+            if (mapConfigElement.getElementType() != JSElementTypes.PROPERTY) {
+                continue;
+            }
 
-        if (mapConfigElement.getElementType() == JSElementTypes.PROPERTY) {
             String module = getJSPropertyName(mapConfigElement);
 
             TreeElement mapAliasesObject = (TreeElement) mapConfigElement
@@ -523,16 +645,14 @@ public class RequirejsProjectComponent implements ProjectComponent, SettingsList
                 requireMap.addModule(requireMapModule);
             }
         }
-
-        parseMapConfigElement(mapConfigElement.getTreeNext());
     }
 
-    protected void parseMapAliasProperty(RequireMapModule requireMapModule, TreeElement mapAliasProperty) {
-        if (null == mapAliasProperty) {
-            return;
-        }
+    protected void parseMapAliasProperty(RequireMapModule requireMapModule, TreeElement firstMapAliasProperty) {
+        for (TreeElement mapAliasProperty = firstMapAliasProperty; null != mapAliasProperty; mapAliasProperty = mapAliasProperty.getTreeNext()) {
+            if (mapAliasProperty.getElementType() != JSElementTypes.PROPERTY) {
+                continue;
+            }
 
-        if (mapAliasProperty.getElementType() == JSElementTypes.PROPERTY) {
             RequirePathAlias alias = new RequirePathAlias();
             alias.alias = getJSPropertyName(mapAliasProperty);
             alias.path = getJSPropertyLiteralValue(mapAliasProperty);
@@ -543,8 +663,6 @@ public class RequirejsProjectComponent implements ProjectComponent, SettingsList
                 LOG.debug("Error parse require js path", alias);
             }
         }
-
-        parseMapAliasProperty(requireMapModule, mapAliasProperty.getTreeNext());
     }
 
     protected String getJSPropertyName(TreeElement jsProperty) {
@@ -559,35 +677,32 @@ public class RequirejsProjectComponent implements ProjectComponent, SettingsList
         return identifierName;
     }
 
-    private void parsePackages(TreeElement node) {
+    private void parsePackages(TreeElement node, PackageConfig packageConfig) {
         TokenSet tokenSet = TokenSet.create(
                 JSElementTypes.OBJECT_LITERAL_EXPRESSION,
                 JSElementTypes.LITERAL_EXPRESSION);
         TreeElement packageNode = (TreeElement) node.findChildByType(tokenSet);
-        parsePackage(packageNode);
+        parsePackage(packageNode, packageConfig);
     }
 
-    private void parsePackage(TreeElement node) {
-        if (null == node) {
-            return;
-        }
-        if (node.getElementType() == JSElementTypes.OBJECT_LITERAL_EXPRESSION
-            || node.getElementType() == JSElementTypes.LITERAL_EXPRESSION
-        ) {
-            // TODO: Not adding not resolve package
-            Package p = new Package();
-            packageConfig.packages.add(p);
-            if (node.getElementType() == JSElementTypes.OBJECT_LITERAL_EXPRESSION) {
-                TreeElement prop = (TreeElement) node.findChildByType(JSElementTypes.PROPERTY);
-                parsePackageObject(prop, p);
-            } else {
-                p.name = dequote(node.getText());
+    private void parsePackage(TreeElement firstNode, PackageConfig packageConfig) {
+        for (TreeElement node = firstNode; null != node; node = node.getTreeNext()) {
+            if (node.getElementType() == JSElementTypes.OBJECT_LITERAL_EXPRESSION
+                || node.getElementType() == JSElementTypes.LITERAL_EXPRESSION
+            ) {
+                // TODO: Not adding not resolve package
+                Package p = new Package();
+                if (node.getElementType() == JSElementTypes.OBJECT_LITERAL_EXPRESSION) {
+                    TreeElement prop = (TreeElement) node.findChildByType(JSElementTypes.PROPERTY);
+                    parsePackageObject(prop, p);
+                } else {
+                    p.name = dequote(node.getText());
+                }
+                normalizeParsedPackage(p);
+                validatePackage(p);
+                packageConfig.addPackage(p);
             }
-            normalizeParsedPackage(p);
-            validatePackage(p);
         }
-        TreeElement next = node.getTreeNext();
-        parsePackage(next);
     }
 
     private void normalizeParsedPackage(Package p) {
@@ -607,12 +722,12 @@ public class RequirejsProjectComponent implements ProjectComponent, SettingsList
         }
     }
 
-    private static void parsePackageObject(TreeElement node, Package p) {
-        if (null == node) {
-            return;
-        }
+    private static void parsePackageObject(TreeElement firstNode, Package p) {
+        for (TreeElement node = firstNode; null != node; node = node.getTreeNext()) {
+            if (node.getElementType() != JSElementTypes.PROPERTY) {
+                continue;
+            }
 
-        if (node.getElementType() == JSElementTypes.PROPERTY) {
             TreeElement identifier = (TreeElement) node.findChildByType(JSTokenTypes.IDENTIFIER);
             String identifierName = null;
             if (null != identifier) {
@@ -633,9 +748,6 @@ public class RequirejsProjectComponent implements ProjectComponent, SettingsList
                 }
             }
         }
-
-        TreeElement next = node.getTreeNext();
-        parsePackageObject(next, p);
     }
 
     @Nullable
@@ -659,31 +771,242 @@ public class RequirejsProjectComponent implements ProjectComponent, SettingsList
         return dequote(jsPropertyValue.getText());
     }
 
-    protected void setBaseUrl(String baseUrl) {
+    protected static String normalizeBaseUrl(String baseUrl) {
         if (baseUrl.startsWith("/")) {
             baseUrl = baseUrl.substring(1);
         }
         if (baseUrl.endsWith("/")) {
             baseUrl = StringUtil.trimEnd(baseUrl, "/");
         }
-        requirejsBaseUrl = baseUrl;
+
+        return baseUrl;
     }
 
-    protected void parseRequireJsPaths(TreeElement node) {
-        if (null == node) {
-            return ;
-        }
+    protected void parseRequireJsPaths(TreeElement firstNode, RequirePaths requirePaths) {
+        for (TreeElement node = firstNode; null != node; node = node.getTreeNext()) {
+            if (node.getElementType() != JSElementTypes.PROPERTY) {
+                continue;
+            }
 
-        if (node.getElementType() == JSElementTypes.PROPERTY) {
             RequirePathAlias pathAlias = new RequirePathAlias();
             pathAlias.alias = getJSPropertyName(node);
-            pathAlias.path = getJSPropertyLiteralValue(node);
+            TreeElement fallbacks = (TreeElement) node.findChildByType(JSElementTypes.ARRAY_LITERAL_EXPRESSION);
+            if (null != fallbacks) {
+                parseRequireJsPathFallbacks(fallbacks, pathAlias);
+            } else {
+                pathAlias.path = getJSPropertyLiteralValue(node);
+            }
             requirePaths.addPath(pathAlias);
         }
+    }
 
-        TreeElement next = node.getTreeNext();
-        if (null != next) {
-            parseRequireJsPaths(next);
+    /**
+     * Publishes a new config snapshot with one top level property of the config object reparsed,
+     * sharing the other sections with the current snapshot, and drops the resolved modules whose
+     * entries changed.
+     */
+    protected void reparseRequirejsConfigProperty(JSProperty property) {
+        RequireConfig current = config;
+        if (!current.parsed) {
+            parseRequirejsConfig();
+            resolveCache.clear();
+            return;
+        }
+
+        String name = property.getName();
+        TreeElement node = (TreeElement) property.getNode();
+        RequireConfig.Builder parsed = new RequireConfig.Builder(current);
+        // Module ids whose resolution may have changed, null if it may have for all of them
+        Set<String> changed;
+        if ("paths".equals(name)) {
+            RequirePaths parsedPaths = new RequirePaths(this);
+            ASTNode pathsNode = node.findChildByType(JSElementTypes.OBJECT_LITERAL_EXPRESSION);
+            if (null != pathsNode) {
+                parseRequireJsPaths((TreeElement) pathsNode.getFirstChildNode(), parsedPaths);
+            }
+            parsed.requirePaths = current.requirePaths.merge(parsedPaths);
+            changed = current.requirePaths.diff(parsed.requirePaths);
+        } else if ("map".equals(name)) {
+            RequireMap parsedMap = new RequireMap();
+            TreeElement mapElement = (TreeElement) node.findChildByType(JSElementTypes.OBJECT_LITERAL_EXPRESSION);
+            if (null != mapElement) {
+                parseMapsConfig(mapElement, parsedMap);
+            }
+            parsed.requireMap = current.requireMap.merge(parsedMap);
+            changed = current.requireMap.diff(parsed.requireMap);
+            if (current.requireMap.hasModuleScopes() != parsed.requireMap.hasModuleScopes()) {
+                // Results are keyed on the requesting file instead of its directory now
+                changed = null;
+            }
+        } else if ("packages".equals(name)) {
+            parsed.packageConfig = new PackageConfig(this);
+            parseRequirejsConfigProperty(node, parsed);
+            changed = current.packageConfig.diff(parsed.packageConfig);
+        } else if ("baseUrl".equals(name)) {
+            parseRequirejsConfigProperty(node, parsed);
+            if (Objects.equals(current.baseUrl, parsed.baseUrl)) {
+                return;
+            }
+            changed = null;
+        } else {
+            // Another key, which may have been one of the above before the edit
+            parseRequirejsConfig();
+            resolveCache.clear();
+            return;
+        }
+        if (null != changed && changed.isEmpty()) {
+            return;
+        }
+
+        config = parsed.build();
+        if (null == changed) {
+            resolveCache.clear();
+        } else {
+            // Modules mapped onto a changed module id resolve differently too
+            final Set<String> changedIds = changed;
+            changed.addAll(config.requireMap.findAliases(target -> ModuleResolveCache.isAffected(target, changedIds)));
+            resolveCache.invalidate(changed);
+        }
+    }
+
+    /**
+     * Returns the top level property of the config object which contains element, null if element
+     * is not inside a property of the config object the full parse reads.
+     */
+    @Nullable
+    protected JSProperty findRequirejsConfigProperty(PsiElement element) {
+        PsiElement current = element;
+        while (null != current && !(current instanceof PsiFile)) {
+            if (current instanceof JSProperty && isRequirejsConfigObject(current.getParent())) {
+                return isParsedConfigObject(current.getParent()) ? (JSProperty) current : null;
+            }
+            current = current.getParent();
+        }
+
+        return null;
+    }
+
+    /**
+     * Whether the edit is inside the value of property. An edit of its name, which may rename one
+     * key into another, is not.
+     */
+    protected static boolean isPropertyValueChange(PsiTreeChangeEvent event, JSProperty property, PsiElement changedElement) {
+        PsiElement value = property.getValue();
+        if (null == value) {
+            return false;
+        }
+        if (changedElement != property) {
+            return PsiTreeUtil.isAncestor(value, changedElement, false);
+        }
+
+        return value == event.getChild() || value == event.getNewChild();
+    }
+
+    /**
+     * Whether element is the config object the last full parse read, the first one of its file.
+     */
+    protected boolean isParsedConfigObject(PsiElement element) {
+        SmartPsiFileRange pointer = parsedConfigObject;
+        if (null == pointer) {
+            return false;
+        }
+        Segment range = pointer.getRange();
+
+        return null != range && range.getStartOffset() == element.getTextRange().getStartOffset();
+    }
+
+    /**
+     * Whether an edit which is not inside a config property may still change the config: it changed
+     * the config object itself, or added, removed or replaced a config call.
+     */
+    protected boolean mayChangeConfig(PsiTreeChangeEvent event, PsiElement changedElement) {
+        PsiElement object = PsiTreeUtil.findFirstParent(
+                changedElement,
+                false,
+                RequirejsProjectComponent::isRequirejsConfigObject
+        );
+        if (null != object) {
+            return isParsedConfigObject(object);
+        }
+        JSCallExpression call = PsiTreeUtil.getParentOfType(changedElement, JSCallExpression.class, false);
+        if (null != call && null != call.getMethodExpression() && call.getMethodExpression().getText().startsWith("require")
+                && null != PsiTreeUtil.getChildOfType(call.getArgumentList(), JSObjectLiteralExpression.class)) {
+            // The callee of a config call was edited
+            return true;
+        }
+        if (changedElement instanceof PsiFile && null == event.getChild() && null == event.getOldChild() && null == event.getNewChild()) {
+            // Children of the file changed as a whole
+            return true;
+        }
+        for (PsiElement child : new PsiElement[] {event.getChild(), event.getOldChild(), event.getNewChild()}) {
+            if (null == child) {
+                continue;
+            }
+            if (isRequirejsConfigObject(child)) {
+                return true;
+            }
+            for (JSObjectLiteralExpression object : PsiTreeUtil.findChildrenOfType(child, JSObjectLiteralExpression.class)) {
+                if (isRequirejsConfigObject(object)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Whether element is a config object literal: the first argument of require(), requirejs(),
+     * require.config() or requirejs.config(), or the value assigned to require or requirejs.
+     * Accepts the same forms as {@link RequireConfigLocator}, so the text and the tree agree on
+     * which object is the first one.
+     */
+    protected static boolean isRequirejsConfigObject(PsiElement element) {
+        if (!(element instanceof JSObjectLiteralExpression)) {
+            return false;
+        }
+
+        PsiElement parent = element.getParent();
+        String target = null;
+        if (parent instanceof JSArgumentList && parent.getParent() instanceof JSCallExpression) {
+            JSExpression[] arguments = ((JSArgumentList) parent).getArguments();
+            JSExpression method = ((JSCallExpression) parent.getParent()).getMethodExpression();
+            if (arguments.length > 0 && arguments[0] == element && null != method) {
+                target = method.getText().replaceAll("\\s", "");
+            }
+        } else if (parent instanceof JSVariable) {
+            target = ((JSVariable) parent).getName();
+        } else if (parent instanceof JSAssignmentExpression) {
+            JSExpression left = ((JSAssignmentExpression) parent).getLOperand();
+            if (null != left) {
+                target = left.getText();
+            }
+        }
+
+        return null != target && (
+                target.equals("require") || target.equals("requirejs")
+                || target.equals("require.config") || target.equals("requirejs.config")
+        );
+    }
+
+    protected long getConfigStamp(VirtualFile configFile) {
+        Document document = FileDocumentManager.getInstance().getCachedDocument(configFile);
+        if (null != document) {
+            return document.getModificationStamp();
+        }
+
+        return configFile.getModificationStamp();
+    }
+
+    protected static void parseRequireJsPathFallbacks(TreeElement arrayNode, RequirePathAlias pathAlias) {
+        for (TreeElement node = arrayNode.getFirstChildNode(); null != node; node = node.getTreeNext()) {
+            if (node.getElementType() == JSElementTypes.LITERAL_EXPRESSION) {
+                if (null == pathAlias.path) {
+                    pathAlias.path = dequote(node.getText());
+                } else {
+                    pathAlias.fallbacks.add(dequote(node.getText()));
+                }
+            }
         }
     }
 
@@ -713,13 +1036,54 @@ public class RequirejsProjectComponent implements ProjectComponent, SettingsList
         return null;
     }
 
-    public PsiElement requireResolve(PsiElement element) {
-        Path path = new Path(element, this);
+    /**
+     * Resolves all targets of the module, best first: the resolved file, the remaining
+     * entries of a paths fallback array, then a directory named like the resolved file. The directory
+     * stays last, so navigation goes to the file through {@link RequirejsReference#resolve()}.
+     */
+    public ResolveResult[] requireMultiResolve(PsiElement element) {
+        return requireMultiResolve(new Path(element, this));
+    }
+
+    public ResolveResult[] requireMultiResolve(Path path) {
+        PsiElement primary = resolveCache.resolve(path);
+        if (null == primary) {
+            return ResolveResult.EMPTY_ARRAY;
+        }
+
+        List<PsiElement> targets = new ArrayList<PsiElement>();
+        targets.add(primary);
+        for (PsiElement fallback : config.requirePaths.resolveFallbacks(path)) {
+            if (!targets.contains(fallback)) {
+                targets.add(fallback);
+            }
+        }
+
+        if (primary instanceof PsiFile) {
+            VirtualFile file = ((PsiFile) primary).getVirtualFile();
+            if (null != file && null != file.getParent()) {
+                VirtualFile directory = file.getParent().findChild(file.getNameWithoutExtension());
+                if (null != directory && directory.isDirectory()) {
+                    PsiDirectory psiDirectory = PsiManager.getInstance(project).findDirectory(directory);
+                    if (null != psiDirectory) {
+                        targets.add(psiDirectory);
+                    }
+                }
+            }
+        }
 
-        return path.resolve();
+        return PsiElementResolveResult.createResults(targets);
     }
 
     public List<String> getCompletion(PsiElement element) {
+        long start = System.nanoTime();
+        List<String> completions = collectCompletion(element);
+        statistics.recordCompletion(System.nanoTime() - start, completions.size());
+
+        return completions;
+    }
+
+    protected List<String> collectCompletion(PsiElement element) {
         List<String> completions = new ArrayList<String>();
         String value = element.getText().replace("'", "").replace("\"", "").replace("IntellijIdeaRulezzz ", "");
         String valuePath = value;
@@ -733,6 +1097,7 @@ public class RequirejsProjectComponent implements ProjectComponent, SettingsList
                 .getContainingFile()
                 .getOriginalFile()
                 .getVirtualFile();
+        VirtualFile webDir = getWebDir(elementFile);
 
         if (exclamationMark) {
             String[] exclamationMarkSplit = valuePath.split("!");
@@ -764,7 +1129,7 @@ public class RequirejsProjectComponent implements ProjectComponent, SettingsList
         String filePath = fileDirectory
                 .getVirtualFile()
                 .getPath()
-                .replace(getWebDir(elementFile).getPath(), "");
+                .replace(webDir.getPath(), "");
         if (filePath.startsWith("/")) {
             filePath = filePath.substring(1);
         }
@@ -804,70 +1169,64 @@ public class RequirejsProjectComponent implements ProjectComponent, SettingsList
             }
         }
 
-        List<String> allFiles = FileUtils.getAllFilesInDirectory(
-                getWebDir(elementFile),
-                getWebDir(elementFile).getPath() + '/',
-                ""
-        );
-        List<String> aliasFiles = requirePaths.getAllFilesOnPaths();
-        aliasFiles.addAll(packageConfig.getAllFilesOnPackages());
-
         String requireMapModule = FileUtils.removeExt(element
                 .getContainingFile()
                 .getOriginalFile()
                 .getVirtualFile()
                 .getPath()
                 .replace(
-                    getWebDir(elementFile).getPath() + '/',
+                    webDir.getPath() + '/',
                     ""
                 ),
             ".js"
         );
 
-        completions.addAll(requireMap.getCompletionByModule(requireMapModule));
+        RequireConfig config = getConfig(true);
+        completions.addAll(config.requireMap.getCompletionByModule(requireMapModule));
 
         String valuePathForAlias = valuePath;
-        if (!oneDot && 0 == doubleDotCount && !startSlash && !getBaseUrl().isEmpty()) {
-            valuePath = FileUtils.join(getBaseUrl(), valuePath);
+        String baseUrl = getBaseUrl();
+        if (!oneDot && 0 == doubleDotCount && !startSlash && !baseUrl.isEmpty()) {
+            valuePath = FileUtils.join(baseUrl, valuePath);
         }
 
-        for (String file : allFiles) {
-            if (file.startsWith(valuePath)) {
-                // Prepare file path
-                if (oneDot) {
-                    if (filePath.isEmpty()) {
-                        file = "./" + file;
-                    } else {
-                        file = file.replaceFirst(filePath, ".");
-                    }
-                }
-
-                if (doubleDotCount > 0) {
-                    if (!StringUtil.isEmpty(valuePath)) {
-                        file = file.replace(pathOnDots, "");
-                    }
-                    if (notEndSlash) {
-                        file = '/' + file;
-                    }
-                    file = dotString + file;
+        for (String file : moduleIndex.getFilesWithPrefix(webDir, valuePath)) {
+            // Prepare file path
+            if (oneDot) {
+                if (filePath.isEmpty()) {
+                    file = "./" + file;
+                } else {
+                    file = file.replaceFirst(filePath, ".");
                 }
+            }
 
-                if (!oneDot && 0 == doubleDotCount && !startSlash && !getBaseUrl().isEmpty()) {
-                    file = file.substring(getBaseUrl().length() + 1);
+            if (doubleDotCount > 0) {
+                if (!StringUtil.isEmpty(valuePath)) {
+                    file = file.replace(pathOnDots, "");
                 }
-
-                if (startSlash) {
+                if (notEndSlash) {
                     file = '/' + file;
                 }
+                file = dotString + file;
+            }
 
-                addToCompletion(completions, file, exclamationMark, plugin);
+            if (!oneDot && 0 == doubleDotCount && !startSlash && !baseUrl.isEmpty()) {
+                file = file.substring(baseUrl.length() + 1);
             }
-        }
 
-        for (String file : aliasFiles) {
-            if (file.startsWith(valuePathForAlias)) {
-                addToCompletion(completions, file, exclamationMark, plugin);
+            if (startSlash) {
+                file = '/' + file;
             }
+
+            addToCompletion(completions, file, exclamationMark, plugin);
+        }
+
+        for (String file : config.requirePaths.getFilesOnPaths(valuePathForAlias)) {
+            addToCompletion(completions, file, exclamationMark, plugin);
+        }
+
+        for (String file : config.packageConfig.getFilesOnPackages(valuePathForAlias)) {
+            addToCompletion(completions, file, exclamationMark, plugin);
         }
 
         return completions;
@@ -896,9 +1255,71 @@ public class RequirejsProjectComponent implements ProjectComponent, SettingsList
             if (confFile == null || !confFile.exists() || !event.getFile().equals(confFile)) {
                 return;
             }
+            // The runtime evaluates the config from disk, so it is stale after every save
+            requirejs = null;
+            if (event.getNewModificationStamp() == configParseStamp) {
+                // Saved from the editor, already applied by RequireConfigPsiListener
+                return;
+            }
             LOG.debug("RequireConfigVfsListener contentsChanged");
 //            RequirejsProjectComponent.this.project.getComponent(RequirejsProjectComponent.class).parseRequirejsConfig();
             RequirejsProjectComponent.this.parseRequirejsConfig();
+            resolveCache.clear();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // RequireConfigPsiListener
+    // -------------------------------------------------------------------------
+    private class RequireConfigPsiListener extends PsiTreeChangeAdapter {
+        @Override
+        public void childAdded(@NotNull PsiTreeChangeEvent event) {
+            configChanged(event, event.getParent());
+        }
+
+        @Override
+        public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+            configChanged(event, event.getParent());
+        }
+
+        @Override
+        public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+            configChanged(event, event.getParent());
+        }
+
+        @Override
+        public void childMoved(@NotNull PsiTreeChangeEvent event) {
+            configChanged(event, event.getParent());
+        }
+
+        @Override
+        public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+            configChanged(event, event.getParent());
+        }
+
+        private void configChanged(PsiTreeChangeEvent event, PsiElement changedElement) {
+            PsiFile file = event.getFile();
+            if (null == file || null == file.getVirtualFile()
+                    || !settings.configFilePath.endsWith(file.getName())) {
+                return;
+            }
+            VirtualFile confFile = findPathInWebDir(settings.configFilePath);
+            if (!file.getVirtualFile().equals(confFile)) {
+                return;
+            }
+
+            JSProperty property = findRequirejsConfigProperty(changedElement);
+            if (null != property && isPropertyValueChange(event, property, changedElement)) {
+                LOG.debug("RequireConfigPsiListener config property changed");
+                reparseRequirejsConfigProperty(property);
+            } else if (null != property || mayChangeConfig(event, changedElement)) {
+                LOG.debug("RequireConfigPsiListener config changed");
+                parseRequirejsConfig();
+                resolveCache.clear();
+            } else {
+                return;
+            }
+            configParseStamp = getConfigStamp(confFile);
         }
     }
 }
@@ -1,15 +1,24 @@
 package requirejs;
 
+import com.intellij.lang.javascript.psi.JSArgumentList;
+import com.intellij.lang.javascript.psi.JSArrayLiteralExpression;
 import com.intellij.lang.javascript.psi.JSLiteralExpression;
-import com.intellij.patterns.StandardPatterns;
 import com.intellij.psi.PsiReferenceContributor;
 import com.intellij.psi.PsiReferenceRegistrar;
 
+import static com.intellij.patterns.PlatformPatterns.psiElement;
+
 public class RequirejsPsiReferenceContributor extends PsiReferenceContributor {
     @Override
     public void registerReferenceProviders(PsiReferenceRegistrar psiReferenceRegistrar) {
         RequirejsPsiReferenceProvider provider = new RequirejsPsiReferenceProvider();
 
-        psiReferenceRegistrar.registerReferenceProvider(StandardPatterns.instanceOf(JSLiteralExpression.class), provider);
+        // Only literals directly in call arguments (require('module')) or in an array (define(['module']))
+        psiReferenceRegistrar.registerReferenceProvider(
+                psiElement(JSLiteralExpression.class).withParent(
+                        psiElement().andOr(psiElement(JSArgumentList.class), psiElement(JSArrayLiteralExpression.class))
+                ),
+                provider
+        );
     }
 }
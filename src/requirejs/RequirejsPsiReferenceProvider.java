@@ -3,6 +3,7 @@ package requirejs;
 import com.intellij.lang.javascript.psi.JSArgumentList;
 import com.intellij.lang.javascript.psi.JSArrayLiteralExpression;
 import com.intellij.lang.javascript.psi.JSCallExpression;
+import com.intellij.lang.javascript.psi.JSExpression;
 import com.intellij.lang.javascript.psi.JSReferenceExpression;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.TextRange;
@@ -21,53 +22,51 @@ public class RequirejsPsiReferenceProvider extends PsiReferenceProvider {
     @NotNull
     @Override
     public PsiReference[] getReferencesByElement(@NotNull PsiElement psiElement, @NotNull ProcessingContext processingContext) {
-        RequirejsProjectComponent projectComponent = psiElement.getProject().getComponent(RequirejsProjectComponent.class);
-
-        if (!projectComponent.isEnabled()) {
+        // Checks on the parent types first: they reject ordinary literals without allocating
+        if (!isRequireCall(psiElement) && !isDefineFirstCollection(psiElement)) {
             return PsiReference.EMPTY_ARRAY;
         }
 
-        String path = psiElement.getText();
-        if (isRequireCall(psiElement) || isDefineFirstCollection(psiElement)) {
-            PsiReference ref = new RequirejsReference(psiElement, new TextRange(1, path.length() - 1));
-            return new PsiReference[] {ref};
+        RequirejsProjectComponent projectComponent = psiElement.getProject().getComponent(RequirejsProjectComponent.class);
+        if (!projectComponent.isEnabled()) {
+            return PsiReference.EMPTY_ARRAY;
         }
 
-        return new PsiReference[0];
+        // The range only needs the length, the text is not copied until resolve or completion
+        PsiReference ref = new RequirejsReference(psiElement, new TextRange(1, psiElement.getTextLength() - 1));
+        return new PsiReference[] {ref};
     }
 
     public boolean isRequireCall(PsiElement element) {
-        PsiElement prevEl = element.getParent();
-        if (prevEl != null) {
-            prevEl = prevEl.getParent();
+        PsiElement jsArgumentList = element.getParent();
+        if (!(jsArgumentList instanceof JSArgumentList)) {
+            return false;
+        }
+        PsiElement jsCall = jsArgumentList.getParent();
+        if (!(jsCall instanceof JSCallExpression)) {
+            return false;
         }
 
-        if (prevEl instanceof JSCallExpression) {
-            if (prevEl.getChildren().length > 1) {
-                String requireFunctionName = Settings.REQUIREJS_REQUIRE_FUNCTION_NAME;
-                if (prevEl.getChildren()[0].getText().toLowerCase().equals(requireFunctionName)) {
-                    return true;
-                }
-            }
+        JSExpression method = ((JSCallExpression) jsCall).getMethodExpression();
+        if (!(method instanceof JSReferenceExpression) || null != ((JSReferenceExpression) method).getQualifier()) {
+            return false;
         }
 
-        return false;
+        return Settings.REQUIREJS_REQUIRE_FUNCTION_NAME.equalsIgnoreCase(((JSReferenceExpression) method).getReferencedName());
     }
 
     public boolean isDefineFirstCollection(PsiElement element) {
         PsiElement jsArrayLiteral = element.getParent();
-        if (null != jsArrayLiteral && jsArrayLiteral instanceof JSArrayLiteralExpression) {
-            PsiElement jsArgumentList = jsArrayLiteral.getParent();
-            if (null != jsArgumentList && jsArgumentList instanceof JSArgumentList) {
-                PsiElement jsReferenceExpression = jsArgumentList.getPrevSibling();
-                if (null != jsReferenceExpression && jsReferenceExpression instanceof JSReferenceExpression) {
-                    if (jsReferenceExpression.getText().equals(Settings.REQUIREJS_DEFINE_FUNCTION_NAME)) {
-                        return true;
-                    }
-                }
-            }
+        if (!(jsArrayLiteral instanceof JSArrayLiteralExpression)) {
+            return false;
+        }
+        PsiElement jsArgumentList = jsArrayLiteral.getParent();
+        if (!(jsArgumentList instanceof JSArgumentList)) {
+            return false;
         }
 
-        return false;
+        PsiElement jsReferenceExpression = jsArgumentList.getPrevSibling();
+        return jsReferenceExpression instanceof JSReferenceExpression
+                && jsReferenceExpression.textMatches(Settings.REQUIREJS_DEFINE_FUNCTION_NAME);
     }
 }
@@ -4,7 +4,10 @@ import com.intellij.codeInsight.lookup.LookupElement;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.PsiReference;
+import com.intellij.psi.PsiPolyVariantReference;
+import com.intellij.psi.ResolveResult;
+import com.intellij.psi.impl.source.resolve.ResolveCache;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.util.IncorrectOperationException;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -12,9 +15,10 @@ import org.jetbrains.annotations.Nullable;
 import java.util.ArrayList;
 import java.util.List;
 
-public class RequirejsReference implements PsiReference {
+public class RequirejsReference implements PsiPolyVariantReference {
     PsiElement element;
     TextRange textRange;
+    private volatile ParsedPath parsedPath;
 
     public RequirejsReference(PsiElement element, TextRange textRange) {
         this.element = element;
@@ -30,14 +34,37 @@ public class RequirejsReference implements PsiReference {
         return element.getProject().getComponent(RequirejsProjectComponent.class).isSettingsValid();
     }
 
+    /**
+     * The module id of the literal, parsed on first use and again only after a PSI change.
+     */
+    protected Path getPath() {
+        long modificationCount = PsiModificationTracker.SERVICE.getInstance(element.getProject()).getModificationCount();
+        ParsedPath parsed = parsedPath;
+        if (null == parsed || parsed.modificationCount != modificationCount) {
+            parsed = new ParsedPath(
+                    new Path(element, element.getProject().getComponent(RequirejsProjectComponent.class)),
+                    modificationCount
+            );
+            parsedPath = parsed;
+        }
+
+        return parsed.path;
+    }
+
     @Nullable
     @Override
     public PsiElement resolve() {
-        if (!isSettingsValid()) {
-            return null;
-        }
+        ResolveResult[] results = multiResolve(false);
+
+        return results.length > 0 ? results[0].getElement() : null;
+    }
 
-        return element.getProject().getComponent(RequirejsProjectComponent.class).requireResolve(element);
+    @NotNull
+    @Override
+    public ResolveResult[] multiResolve(boolean incompleteCode) {
+        return ResolveCache
+                .getInstance(element.getProject())
+                .resolveWithCaching(this, Resolver.INSTANCE, false, incompleteCode);
     }
 
     @Override
@@ -102,4 +129,31 @@ public class RequirejsReference implements PsiReference {
     public String getCanonicalText() {
         return element.getText();
     }
+
+    private static class Resolver implements ResolveCache.PolyVariantResolver<RequirejsReference> {
+        private static final Resolver INSTANCE = new Resolver();
+
+        @NotNull
+        @Override
+        public ResolveResult[] resolve(@NotNull RequirejsReference reference, boolean incompleteCode) {
+            if (!reference.isSettingsValid()) {
+                return ResolveResult.EMPTY_ARRAY;
+            }
+
+            return reference.element
+                    .getProject()
+                    .getComponent(RequirejsProjectComponent.class)
+                    .requireMultiResolve(reference.getPath());
+        }
+    }
+
+    private static class ParsedPath {
+        private final Path path;
+        private final long modificationCount;
+
+        ParsedPath(Path path, long modificationCount) {
+            this.path = path;
+            this.modificationCount = modificationCount;
+        }
+    }
 }
@@ -0,0 +1,112 @@
+package requirejs;
+
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.Alarm;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Buffers resolve diagnostics and reports them as periodic summary notifications.
+ *
+ * Resolves only append to an in-memory buffer; at most one flush is scheduled per
+ * {@link #FLUSH_DELAY_MS}, which turns everything collected since the previous flush into
+ * at most two notifications: the debug log (when logging is enabled) and the unresolved modules.
+ */
+public class ResolveDiagnostics {
+    public static final int FLUSH_DELAY_MS = 2000;
+    public static final int MAX_BUFFERED_MESSAGES = 50;
+    public static final int MAX_REPORTED_MODULES = 10;
+
+    protected RequirejsProjectComponent component;
+    private final Alarm flushAlarm;
+
+    private final List<String> debugMessages = new ArrayList<String>();
+    private int droppedDebugMessages;
+    private final Set<String> unresolvedModules = new LinkedHashSet<String>();
+    private int unresolvedCount;
+    private boolean flushScheduled;
+
+    public ResolveDiagnostics(RequirejsProjectComponent requirejsProjectComponent) {
+        component = requirejsProjectComponent;
+        flushAlarm = new Alarm(Alarm.ThreadToUse.POOLED_THREAD, component.project);
+    }
+
+    /**
+     * Callers should check this before building a debug message.
+     */
+    public boolean isDebugEnabled() {
+        return component.settings.enableLogging;
+    }
+
+    public void debug(String message) {
+        if (!isDebugEnabled()) {
+            return;
+        }
+        synchronized (this) {
+            if (debugMessages.size() < MAX_BUFFERED_MESSAGES) {
+                debugMessages.add(message);
+            } else {
+                droppedDebugMessages++;
+            }
+            scheduleFlush();
+        }
+    }
+
+    public void unresolved(String moduleId) {
+        synchronized (this) {
+            unresolvedCount++;
+            if (unresolvedModules.size() < MAX_REPORTED_MODULES) {
+                unresolvedModules.add(moduleId);
+            }
+            scheduleFlush();
+        }
+    }
+
+    private void scheduleFlush() {
+        if (!flushScheduled && !flushAlarm.isDisposed()) {
+            flushScheduled = true;
+            flushAlarm.addRequest(new Runnable() {
+                @Override
+                public void run() {
+                    flush();
+                }
+            }, FLUSH_DELAY_MS);
+        }
+    }
+
+    public void flush() {
+        String debugSummary = null;
+        String unresolvedSummary = null;
+        synchronized (this) {
+            flushScheduled = false;
+            if (!debugMessages.isEmpty()) {
+                debugSummary = StringUtil.join(debugMessages, "<br/>");
+                if (droppedDebugMessages > 0) {
+                    debugSummary += "<br/>... and " + droppedDebugMessages + " more";
+                }
+                debugMessages.clear();
+                droppedDebugMessages = 0;
+            }
+            if (unresolvedCount > 0) {
+                unresolvedSummary = "Plugin failed to resolve with requirejs " + unresolvedCount + " time(s): "
+                        + StringUtil.join(unresolvedModules, ", ");
+                if (unresolvedModules.size() < unresolvedCount) {
+                    unresolvedSummary += ", ...";
+                }
+                unresolvedModules.clear();
+                unresolvedCount = 0;
+            }
+        }
+
+        if (null != debugSummary) {
+            component.showInfoNotification(debugSummary, NotificationType.INFORMATION);
+        }
+        if (null != unresolvedSummary) {
+            component.showInfoNotification(unresolvedSummary, NotificationType.ERROR);
+        }
+    }
+}
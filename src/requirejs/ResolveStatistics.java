@@ -0,0 +1,134 @@
+package requirejs;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Always-on counters for resolve and completion: per probe call and hit counts with latency
+ * histograms, completion latency and candidate counts, and cache hit ratios.
+ * Recording is a few atomic increments; {@link #snapshot()} renders everything as text.
+ */
+public class ResolveStatistics {
+    protected RequirejsProjectComponent component;
+
+    private final ConcurrentMap<String, Histogram> probes = new ConcurrentHashMap<String, Histogram>();
+    private final Histogram completionLatency = new Histogram();
+    private final Histogram completionCandidates = new Histogram();
+    private final AtomicLong moduleCacheHits = new AtomicLong();
+    private final AtomicLong moduleCacheMisses = new AtomicLong();
+
+    public ResolveStatistics(RequirejsProjectComponent requirejsProjectComponent) {
+        component = requirejsProjectComponent;
+    }
+
+    public void recordProbe(String probe, long nanos, boolean resolved) {
+        Histogram histogram = probes.get(probe);
+        if (null == histogram) {
+            Histogram created = new Histogram();
+            histogram = probes.putIfAbsent(probe, created);
+            if (null == histogram) {
+                histogram = created;
+            }
+        }
+        histogram.record(nanos, resolved);
+    }
+
+    public void recordCompletion(long nanos, int candidates) {
+        completionLatency.record(nanos, candidates > 0);
+        completionCandidates.record(candidates, candidates > 0);
+    }
+
+    public void recordModuleCacheLookup(boolean hit) {
+        (hit ? moduleCacheHits : moduleCacheMisses).incrementAndGet();
+    }
+
+    public void reset() {
+        probes.clear();
+        completionLatency.reset();
+        completionCandidates.reset();
+        moduleCacheHits.set(0);
+        moduleCacheMisses.set(0);
+    }
+
+    public String snapshot() {
+        StringBuilder out = new StringBuilder();
+        out.append("Require.js plugin statistics for project ").append(component.project.getName()).append('\n');
+
+        out.append("\nResolve probes (latency in nanoseconds)\n");
+        for (Map.Entry<String, Histogram> entry : new TreeMap<String, Histogram>(probes).entrySet()) {
+            entry.getValue().appendTo(out, entry.getKey());
+        }
+
+        out.append("\nCompletion\n");
+        completionLatency.appendTo(out, "latency (nanoseconds)");
+        completionCandidates.appendTo(out, "candidates");
+
+        out.append("\nCaches\n");
+        appendRatio(out, "module resolve cache", moduleCacheHits.get(), moduleCacheMisses.get());
+        ResolvedPathsCache pathsCache = component.resolvedPathsCache;
+        appendRatio(out, "require.js paths cache", pathsCache.getHits(), pathsCache.getMisses());
+        out.append("  require.js paths cache size ").append(pathsCache.size()).append('/').append(pathsCache.getMaxSize())
+                .append(", evictions ").append(pathsCache.getEvictions()).append('\n');
+
+        return out.toString();
+    }
+
+    private static void appendRatio(StringBuilder out, String name, long hits, long misses) {
+        long total = hits + misses;
+        out.append("  ").append(name).append(": hits ").append(hits).append(", misses ").append(misses);
+        if (total > 0) {
+            out.append(", hit ratio ").append(String.format("%.1f%%", 100.0 * hits / total));
+        }
+        out.append('\n');
+    }
+
+    /**
+     * Counts values in power of two buckets: bucket i holds values in [2^(i-1), 2^i).
+     */
+    protected static class Histogram {
+        private static final int BUCKETS = 48;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong positive = new AtomicLong();
+        private final AtomicLong total = new AtomicLong();
+
+        void record(long value, boolean hit) {
+            int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(0, value)));
+            buckets.incrementAndGet(bucket);
+            count.incrementAndGet();
+            total.addAndGet(value);
+            if (hit) {
+                positive.incrementAndGet();
+            }
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets.set(i, 0);
+            }
+            count.set(0);
+            positive.set(0);
+            total.set(0);
+        }
+
+        void appendTo(StringBuilder out, String name) {
+            long calls = count.get();
+            out.append("  ").append(name).append(": count ").append(calls).append(", hits ").append(positive.get());
+            if (calls > 0) {
+                out.append(", mean ").append(total.get() / calls);
+            }
+            out.append('\n');
+            for (int i = 0; i < BUCKETS; i++) {
+                long bucketCount = buckets.get(i);
+                if (bucketCount > 0) {
+                    out.append("    < ").append(1L << i).append(": ").append(bucketCount).append('\n');
+                }
+            }
+        }
+    }
+}
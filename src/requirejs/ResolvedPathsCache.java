@@ -0,0 +1,122 @@
+package requirejs;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Size-bounded cache of require.toUrl() results, keyed on the module id.
+ *
+ * Entries are only valid for one modification stamp of the config file: the first access with
+ * a different stamp drops everything. Failed resolves are not stored, so they are retried.
+ * Lookups never lock, so highlighting threads resolving dependencies do not wait on each other.
+ * Past the size bound an arbitrary entry is evicted, not the least recently used one.
+ */
+public class ResolvedPathsCache {
+    public static final int DEFAULT_MAX_SIZE = 4096;
+
+    private final int maxSize;
+    private final AtomicReference<Generation> generation = new AtomicReference<Generation>(new Generation(-1));
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ResolvedPathsCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public ResolvedPathsCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    @Nullable
+    public String get(String depName, long stamp) {
+        Generation current = validate(stamp);
+        if (null == current) {
+            // Asked by a runtime built from an older config, which must not reset the newer entries
+            misses.incrementAndGet();
+            return null;
+        }
+        String path = current.entries.get(depName);
+        if (null == path) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+
+        return path;
+    }
+
+    public void put(String depName, @Nullable String path, long stamp) {
+        Generation current = validate(stamp);
+        if (null == current || null == path) {
+            // Computed by a runtime built from an older config, or not resolved
+            return;
+        }
+        if (null == current.entries.put(depName, path) && current.entries.size() > maxSize) {
+            Iterator<String> keys = current.entries.keySet().iterator();
+            if (keys.hasNext()) {
+                keys.next();
+                keys.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    public void clear() {
+        generation.get().entries.clear();
+    }
+
+    public int size() {
+        return generation.get().entries.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Returns the entries for stamp, replacing older ones, or null if stamp is older than the entries.
+     */
+    @Nullable
+    private Generation validate(long stamp) {
+        while (true) {
+            Generation current = generation.get();
+            if (stamp == current.stamp) {
+                return current;
+            }
+            if (stamp < current.stamp) {
+                return null;
+            }
+            Generation next = new Generation(stamp);
+            if (generation.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    private static class Generation {
+        final long stamp;
+        final ConcurrentHashMap<String, String> entries = new ConcurrentHashMap<String, String>();
+
+        Generation(long stamp) {
+            this.stamp = stamp;
+        }
+    }
+}
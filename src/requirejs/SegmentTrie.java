@@ -0,0 +1,69 @@
+package requirejs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Map from '/' separated keys (module ids, path aliases, package names) to values, with lookup of
+ * all keys which are a whole segment prefix of a module id, as RequireJS matches paths and packages:
+ * "a/b" is a prefix of "a/b" and "a/b/c", but not of "a/bc".
+ * Lookups cost one step per segment of the module id, independent of the number of keys.
+ *
+ * Children are concurrent maps, so lookups can run while the parser adds keys.
+ */
+public class SegmentTrie<T> {
+    private final Node<T> root = new Node<T>();
+
+    public void put(String key, T value) {
+        Node<T> node = root;
+        int start = 0;
+        int end;
+        while ((end = key.indexOf('/', start)) != -1) {
+            node = node.getOrCreateChild(key.substring(start, end));
+            start = end + 1;
+        }
+        node.getOrCreateChild(key.substring(start)).value = value;
+    }
+
+    /**
+     * Returns the values of all keys which are a segment prefix of moduleId, the longest key first.
+     */
+    public List<T> findPrefixes(String moduleId) {
+        List<T> values = new ArrayList<T>();
+        Node<T> node = root;
+        int start = 0;
+        while (true) {
+            int end = moduleId.indexOf('/', start);
+            node = node.children.get(end == -1 ? moduleId.substring(start) : moduleId.substring(start, end));
+            if (null == node) {
+                break;
+            }
+            T value = node.value;
+            if (null != value) {
+                values.add(0, value);
+            }
+            if (end == -1) {
+                break;
+            }
+            start = end + 1;
+        }
+
+        return values;
+    }
+
+    private static class Node<T> {
+        final Map<String, Node<T>> children = new ConcurrentHashMap<String, Node<T>>();
+        volatile T value;
+
+        Node<T> getOrCreateChild(String segment) {
+            Node<T> child = children.get(segment);
+            if (null == child) {
+                child = new Node<T>();
+                children.put(segment, child);
+            }
+            return child;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package requirejs;
+
+import com.intellij.lang.javascript.psi.JSLiteralExpression;
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.EmptyRunnable;
+import com.intellij.openapi.util.Ref;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Prepares resolution in the background after the project is opened and indexed: parses the config,
+ * indexes the web dir, paths and packages, starts the require.js runtime and resolves the modules
+ * reachable from the config file, so the first completion or highlighting pass finds warm caches.
+ *
+ * Every step, and the resolve of every single literal, runs in its own short read action which a
+ * pending write action cancels; the step is retried once the write action is done, so typing never
+ * waits for the warm-up. The require.js runtime is started outside of any read action.
+ */
+public class WarmUpTask extends Task.Backgroundable {
+    public static final int MAX_FILES = 500;
+
+    protected RequirejsProjectComponent component;
+    /**
+     * Files whose dependencies were resolved, the config file first.
+     */
+    protected final Set<VirtualFile> warmedFiles = new LinkedHashSet<VirtualFile>();
+
+    public WarmUpTask(RequirejsProjectComponent component) {
+        super(component.project, "Preparing Require.js resolve", true);
+        this.component = component;
+    }
+
+    @Override
+    public void run(@NotNull ProgressIndicator indicator) {
+        indicator.setText("Parsing Require.js config");
+        VirtualFile configFile = read(indicator, () -> {
+            if (component.project.isDisposed() || !component.isEnabled() || !component.isSettingsValid()) {
+                return null;
+            }
+            if (!component.parseRequirejsConfig()) {
+                return null;
+            }
+            return component.findPathInWebDir(component.settings.configFilePath);
+        });
+        if (null == configFile) {
+            return;
+        }
+
+        indicator.checkCanceled();
+        indicator.setText("Indexing modules");
+        read(indicator, () -> {
+            VirtualFile webDir = component.getWebDir();
+            if (null != webDir) {
+                component.moduleIndex.getFiles(webDir);
+            }
+            return null;
+        });
+        read(indicator, () -> component.getConfig().requirePaths.getFilesOnPaths(""));
+        read(indicator, () -> component.getConfig().packageConfig.getFilesOnPackages(""));
+
+        if (component.settings.requireJsEnabled) {
+            indicator.checkCanceled();
+            indicator.setText("Starting require.js");
+            component.getRequireRuntime();
+        }
+
+        indicator.setText("Resolving modules");
+        resolveDependencyGraph(configFile, indicator);
+        component.getLogger().debug("Warm-up resolved dependencies of " + warmedFiles.size() + " files");
+    }
+
+    /**
+     * Resolves the module references of entry and of every file they lead to, breadth first,
+     * up to {@link #MAX_FILES} files.
+     */
+    protected void resolveDependencyGraph(VirtualFile entry, ProgressIndicator indicator) {
+        Deque<VirtualFile> queue = new ArrayDeque<VirtualFile>();
+        queue.add(entry);
+        warmedFiles.add(entry);
+        while (!queue.isEmpty()) {
+            indicator.checkCanceled();
+            final VirtualFile file = queue.poll();
+            indicator.setText2(file.getPath());
+            for (final JSLiteralExpression literal : read(indicator, () -> findLiterals(file))) {
+                indicator.checkCanceled();
+                for (VirtualFile dependency : read(indicator, () -> resolveLiteral(literal))) {
+                    if (warmedFiles.size() >= MAX_FILES) {
+                        return;
+                    }
+                    if (warmedFiles.add(dependency)) {
+                        queue.add(dependency);
+                    }
+                }
+            }
+        }
+    }
+
+    protected Collection<JSLiteralExpression> findLiterals(VirtualFile file) {
+        if (component.project.isDisposed() || !file.isValid()) {
+            return Collections.emptyList();
+        }
+        PsiFile psiFile = PsiManager.getInstance(component.project).findFile(file);
+        if (null == psiFile) {
+            return Collections.emptyList();
+        }
+
+        return PsiTreeUtil.findChildrenOfType(psiFile, JSLiteralExpression.class);
+    }
+
+    protected List<VirtualFile> resolveLiteral(JSLiteralExpression literal) {
+        // The file may have been reparsed by a write action since its literals were collected
+        if (component.project.isDisposed() || !literal.isValid()) {
+            return Collections.emptyList();
+        }
+
+        List<VirtualFile> dependencies = new ArrayList<VirtualFile>();
+        for (PsiReference reference : literal.getReferences()) {
+            if (!(reference instanceof RequirejsReference)) {
+                continue;
+            }
+            PsiElement target = reference.resolve();
+            if (target instanceof PsiFile && null != ((PsiFile) target).getVirtualFile()) {
+                dependencies.add(((PsiFile) target).getVirtualFile());
+            }
+        }
+
+        return dependencies;
+    }
+
+    /**
+     * Runs computable in a read action which gives way to write actions: a write action requested
+     * meanwhile cancels it, and it is run again after the write action.
+     */
+    private static <T> T read(ProgressIndicator indicator, final Computable<T> computable) {
+        Application application = ApplicationManager.getApplication();
+        if (application.isDispatchThread()) {
+            // No write action can be pending while the event dispatch thread itself reads
+            return application.runReadAction(computable);
+        }
+
+        final Ref<T> result = new Ref<T>();
+        while (!ProgressIndicatorUtils.runInReadActionWithWriteActionPriority(() -> result.set(computable.compute()))) {
+            indicator.checkCanceled();
+            application.invokeAndWait(EmptyRunnable.getInstance(), ModalityState.any());
+        }
+
+        return result.get();
+    }
+}
@@ -65,6 +65,7 @@ public class RequirejsSettingsPage implements Configurable {
     public void apply() throws ConfigurationException {
         project.getComponent(RequirejsProjectComponent.class).clearParse();
         saveSettings();
+        getSettings().fireSettingsChanged();
 
         PsiManager.getInstance(project).dropResolveCaches();
     }
@@ -80,6 +81,7 @@ public class RequirejsSettingsPage implements Configurable {
         getSettings().requireJsEnabled = enableRequireJsCheckBox.isSelected();
         getSettings().requireJsPath = requireJsPathField.getText();
         getSettings().enableLogging = enableLoggingCheckbox.isSelected();
+        getSettings().incModificationCount();
 
         project.getComponent(RequirejsProjectComponent.class).validateSettings();
     }
@@ -4,12 +4,15 @@ import com.intellij.ide.plugins.PluginManager;
 import com.intellij.ide.plugins.PluginManagerCore;
 import com.intellij.openapi.components.*;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Comparing;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.SimpleModificationTracker;
 import com.intellij.util.xmlb.XmlSerializerUtil;
+import com.intellij.util.xmlb.annotations.Transient;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 
 @State(
         name = "RequirejsProjectComponent",
@@ -18,7 +21,7 @@ import java.util.Objects;
                 @Storage(id = "dir", file = StoragePathMacros.PROJECT_CONFIG_DIR + "/requirejsPlugin.xml", scheme = StorageScheme.DIRECTORY_BASED)
         }
 )
-public class Settings implements PersistentStateComponent<Settings> {
+public class Settings implements PersistentStateComponent<Settings>, ModificationTracker {
     public static final String REQUIREJS_REQUIRE_FUNCTION_NAME = "require";
     public static final String REQUIREJS_DEFINE_FUNCTION_NAME = "define";
     public static final String DEFAULT_PUBLIC_PATH = "public";
@@ -39,6 +42,7 @@ public class Settings implements PersistentStateComponent<Settings> {
     public boolean requireJsEnabled = DEFAULT_REQUIRE_JS_ENABLED;
     public boolean enableLogging = DEFAULT_LOGGING_ENABLED;
     private List<SettingsListener> listeners = new ArrayList<>();
+    private final SimpleModificationTracker modificationTracker = new SimpleModificationTracker();
 
     protected Project project;
 
@@ -51,18 +55,53 @@ public class Settings implements PersistentStateComponent<Settings> {
     @Nullable
     @Override
     public Settings getState() {
-        listeners.forEach(l -> l.settingsChanged(this));
+        // Called on every save, must not notify: listeners drop their caches and the require.js runtime
         return this;
     }
 
     @Override
     public void loadState(Settings state) {
+        boolean changed = !hasSameValues(state);
         XmlSerializerUtil.copyBean(state, this);
+        if (changed) {
+            incModificationCount();
+            fireSettingsChanged();
+        }
+    }
+
+    public boolean hasSameValues(Settings other) {
+        return Comparing.equal(publicPath, other.publicPath)
+                && Comparing.equal(configFilePath, other.configFilePath)
+                && Comparing.equal(baseUrl, other.baseUrl)
+                && Comparing.equal(requireJsPath, other.requireJsPath)
+                && overrideBaseUrl == other.overrideBaseUrl
+                && pluginEnabled == other.pluginEnabled
+                && requireJsEnabled == other.requireJsEnabled
+                && enableLogging == other.enableLogging;
+    }
+
+    /**
+     * Notifies the listeners, called once the settings were changed from the settings page or reloaded.
+     */
+    public void fireSettingsChanged() {
+        listeners.forEach(l -> l.settingsChanged(this));
+    }
+
+    /**
+     * Incremented whenever the fields are changed, so checks against the settings
+     * can tell whether they are still current with one compare.
+     */
+    @Transient
+    @Override
+    public long getModificationCount() {
+        return modificationTracker.getModificationCount();
     }
 
-    public String getVersion() {
-        return "" + Objects.hash(publicPath, configFilePath, baseUrl, requireJsPath, overrideBaseUrl, pluginEnabled,
-                requireJsEnabled, enableLogging);
+    /**
+     * Must be called after changing the fields.
+     */
+    public void incModificationCount() {
+        modificationTracker.incModificationCount();
     }
 
     public void registerListener(SettingsListener listener) {
@@ -0,0 +1,14 @@
+require({
+    baseUrl: '/blocks',
+    paths: {
+        lib: 'notExists',
+        'lib/child': 'childBlocks',
+        libs: 'childBlocks'
+    }
+})
+
+define([
+    'lib/child/childBlock',
+    'libs/childBlock',
+    'lib/block'
+])
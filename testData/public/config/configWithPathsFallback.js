@@ -0,0 +1,12 @@
+require({
+    baseUrl: '/blocks',
+    paths: {
+        moduleWithUriFallback: ['//cdn.example.com/block', 'block'],
+        moduleWithLocalFallback: ['notExists/block', 'childBlocks/childBlock', 'block']
+    }
+})
+
+define([
+    'moduleWithUriFallback',
+    'moduleWithLocalFallback'
+])
\ No newline at end of file
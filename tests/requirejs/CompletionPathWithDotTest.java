@@ -5,7 +5,6 @@ import com.intellij.openapi.editor.LogicalPosition;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.testFramework.fixtures.impl.CodeInsightTestFixtureImpl;
-import requirejs.settings.Settings;
 
 import java.util.Arrays;
 import java.util.List;
@@ -88,7 +87,7 @@ public class CompletionPathWithDotTest extends RequirejsTestCase
 
     public void testFileOnRootProjectDir()
     {
-        Settings.getInstance(getProject()).publicPath = "";
+        setWebPathSetting("");
 
         myFixture.configureByFile("parentWebPathFile.js");
 
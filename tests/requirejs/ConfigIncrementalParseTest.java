@@ -0,0 +1,147 @@
+package requirejs;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiDocumentManager;
+
+public class ConfigIncrementalParseTest extends RequirejsTestCase {
+    protected RequirejsProjectComponent component;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        myFixture.configureByFiles(
+                "public/rootWebPathConfigTest.js",
+                "public/mainRequireJs.js",
+                "public/blocks/block.js",
+                "public/blocks/childBlocks/childBlock.js",
+                "public/rootWebPathFile.js"
+        );
+        setWebPathSetting();
+        setConfigPath("mainRequireJs.js");
+
+        component = getProject().getComponent(RequirejsProjectComponent.class);
+        assertTrue(component.isSettingsValid());
+        assertTrue(component.parseRequirejsConfig());
+    }
+
+    public void testPathsEntryChanged() {
+        RequirePathAlias unchangedAlias = component.getConfig().requirePaths.getPaths().get("moduleAbsolutePath");
+        assertEquals("childBlocks/childBlock", component.getConfig().requirePaths.getPaths().get("moduleRelativeBaseUrlPath").path);
+
+        replaceInConfig("'childBlocks/childBlock'", "'block'");
+
+        assertEquals("block", component.getConfig().requirePaths.getPaths().get("moduleRelativeBaseUrlPath").path);
+        assertSame(unchangedAlias, component.getConfig().requirePaths.getPaths().get("moduleAbsolutePath"));
+        assertReference(getReferenceForHumanPosition(4, 51), "moduleRelativeBaseUrlPath", "block.js");
+    }
+
+    public void testPathsEntryRemoved() {
+        replaceInConfig("moduleRelativeOneDotPath: './block',", "");
+
+        assertNull(component.getConfig().requirePaths.getPaths().get("moduleRelativeOneDotPath"));
+        assertEquals(3, component.getConfig().requirePaths.getPaths().size());
+    }
+
+    public void testBaseUrlChanged() {
+        assertEquals("blocks", component.getBaseUrl());
+
+        replaceInConfig("baseUrl: '/blocks'", "baseUrl: '/blocks/childBlocks'");
+
+        assertEquals("blocks/childBlocks", component.getBaseUrl());
+        assertEquals(4, component.getConfig().requirePaths.getPaths().size());
+    }
+
+    public void testKeyRenamed() {
+        component.resolveCache.resolve(findLiteral("moduleRelativeBaseUrlPath"));
+        assertTrue(component.resolveCache.isCached("moduleRelativeBaseUrlPath"));
+
+        replaceInConfig("paths:", "pathz:");
+
+        assertTrue(component.getConfig().requirePaths.getPaths().isEmpty());
+        assertFalse(component.resolveCache.isCached("moduleRelativeBaseUrlPath"));
+
+        replaceInConfig("pathz:", "paths:");
+
+        assertEquals(4, component.getConfig().requirePaths.getPaths().size());
+        assertReference(getReferenceForHumanPosition(4, 51), "moduleRelativeBaseUrlPath", "childBlock.js");
+    }
+
+    public void testPathsEntryChangedKeepsOtherModulesResolved() {
+        component.resolveCache.resolve(findLiteral("moduleRelativeBaseUrlPath"));
+        component.resolveCache.resolve(findLiteral("moduleAbsolutePath"));
+        assertTrue(component.resolveCache.isCached("moduleRelativeBaseUrlPath"));
+
+        replaceInConfig("'childBlocks/childBlock'", "'block'");
+
+        assertFalse(component.resolveCache.isCached("moduleRelativeBaseUrlPath"));
+        assertTrue(component.resolveCache.isCached("moduleAbsolutePath"));
+    }
+
+    public void testEditOutsideConfigIsIgnored() {
+        myFixture.addFileToProject(
+                "public/mainWithCode.js",
+                "requirejs.config({\n    paths: {\n        first: 'blocks/block'\n    }\n});\nvar answer = 42;\n"
+        );
+        setConfigPath("mainWithCode.js");
+        assertTrue(component.parseRequirejsConfig());
+        RequireConfig parsed = component.getConfig();
+
+        replaceInFile("public/mainWithCode.js", "42", "43");
+
+        assertSame(parsed, component.getConfig());
+    }
+
+    public void testEditAfterCodeBeforeConfigMoved() {
+        myFixture.addFileToProject(
+                "public/mainAfterCode.js",
+                "var answer = 42;\nrequirejs.config({\n    paths: {\n        first: 'blocks/block'\n    }\n});\n"
+        );
+        setConfigPath("mainAfterCode.js");
+        assertTrue(component.parseRequirejsConfig());
+
+        replaceInFile("public/mainAfterCode.js", "42", "4200");
+        replaceInFile("public/mainAfterCode.js", "'blocks/block'", "'blocks/childBlocks/childBlock'");
+
+        assertEquals("blocks/childBlocks/childBlock", component.getConfig().requirePaths.getPaths().get("first").path);
+    }
+
+    public void testSecondConfigCallIsIgnored() {
+        myFixture.addFileToProject(
+                "public/mainTwoConfigs.js",
+                "requirejs.config({\n    paths: {\n        first: 'blocks/block'\n    }\n});\n"
+                        + "requirejs.config({\n    paths: {\n        second: 'blocks/block'\n    }\n});\n"
+        );
+        setConfigPath("mainTwoConfigs.js");
+        assertTrue(component.parseRequirejsConfig());
+        RequireConfig parsed = component.getConfig();
+
+        replaceInFile("public/mainTwoConfigs.js", "second: 'blocks/block'", "second: 'blocks/childBlocks/childBlock'");
+
+        assertSame(parsed, component.getConfig());
+        assertNull(component.getConfig().requirePaths.getPaths().get("second"));
+    }
+
+    protected void replaceInConfig(final String search, final String replacement) {
+        replaceInFile("public/mainRequireJs.js", search, replacement);
+    }
+
+    protected void replaceInFile(String path, final String search, final String replacement) {
+        VirtualFile config = myFixture.getTempDirFixture().getFile(path);
+        assertNotNull(config);
+        final Document document = FileDocumentManager.getInstance().getDocument(config);
+        assertNotNull(document);
+        final int offset = document.getText().indexOf(search);
+        assertTrue(offset >= 0);
+
+        WriteCommandAction.runWriteCommandAction(getProject(), new Runnable() {
+            @Override
+            public void run() {
+                document.replaceString(offset, offset + search.length(), replacement);
+                PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+            }
+        });
+    }
+}
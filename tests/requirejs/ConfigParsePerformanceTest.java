@@ -0,0 +1,97 @@
+package requirejs;
+
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.util.ThrowableRunnable;
+
+public class ConfigParsePerformanceTest extends RequirejsTestCase {
+    protected static final int BUNDLE_MODULES_COUNT = 20000;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        setWebPathSetting();
+    }
+
+    public void testParseConfigAtEndOfBundle() {
+        StringBuilder bundle = new StringBuilder();
+        appendModules(bundle);
+        appendConfig(bundle);
+        assertTrue("bundle should be multi-megabyte", bundle.length() > 2 * 1024 * 1024);
+
+        assertParseTiming("bundle.js", bundle, 10000);
+    }
+
+    public void testParseConfigAtStartOfBundle() {
+        StringBuilder bundle = new StringBuilder();
+        appendConfig(bundle);
+        appendModules(bundle);
+
+        assertParseTiming("bundle.js", bundle, 5000);
+    }
+
+    public void testParseConfigAfterRequireInStringsAndComments() {
+        StringBuilder bundle = new StringBuilder();
+        bundle.append("var message = 'require({baseUrl: \\'/wrong\\'})';\n")
+                .append("// require.config({baseUrl: '/wrong'});\n")
+                .append("/* requirejs = {baseUrl: '/wrong'}; */\n");
+        appendModules(bundle);
+        appendConfig(bundle);
+
+        assertParseTiming("bundle.js", bundle, 10000);
+    }
+
+    public void testParseConfigWhereTextLocatorGivesUp() {
+        StringBuilder bundle = new StringBuilder();
+        // A '/' after ')' may start a regex or a division, so the text locator leaves this file to the tree walk
+        bundle.append("if (legacy) /require.config\\(/.test(source);\n");
+        appendModules(bundle);
+        appendConfig(bundle);
+        appendModules(bundle);
+        bundle.append("require.config({\n")
+                .append("    paths: {\n")
+                .append("        secondConfigPath: 'childBlocks/childBlock'\n")
+                .append("    }\n")
+                .append("});\n");
+        assertNull(new RequireConfigLocator(bundle).findConfigObject());
+
+        assertParseTiming("bundle.js", bundle, 10000);
+        assertNull(getProject().getComponent(RequirejsProjectComponent.class)
+                .getConfig().requirePaths.getPaths().get("secondConfigPath"));
+    }
+
+    protected void assertParseTiming(String configPath, StringBuilder bundle, int expectedMs) {
+        myFixture.addFileToProject("public/" + configPath, bundle.toString());
+        setConfigPath(configPath);
+
+        final RequirejsProjectComponent component = getProject().getComponent(RequirejsProjectComponent.class);
+        PlatformTestUtil.startPerformanceTest("parse requirejs config in bundle", expectedMs, new ThrowableRunnable() {
+            @Override
+            public void run() throws Throwable {
+                assertTrue(component.parseRequirejsConfig());
+            }
+        }).assertTiming();
+
+        assertEquals(2, component.getConfig().requirePaths.getPaths().size());
+        assertNotNull(component.getConfig().requirePaths.getPaths().get("moduleRelativeBaseUrlPath"));
+    }
+
+    protected static void appendModules(StringBuilder bundle) {
+        for (int i = 0; i < BUNDLE_MODULES_COUNT; i++) {
+            bundle.append("define('bundle/module").append(i).append("', ['require', 'bundle/module").append(i / 2)
+                    .append("'], function (require) {\n")
+                    .append("    var dependency = require('bundle/module").append(i / 2).append("');\n")
+                    .append("    return {name: 'module").append(i).append("', dependency: dependency, values: [1, 2, 3]};\n")
+                    .append("});\n");
+        }
+    }
+
+    protected static void appendConfig(StringBuilder bundle) {
+        bundle.append("require.config({\n")
+                .append("    baseUrl: '/blocks',\n")
+                .append("    paths: {\n")
+                .append("        moduleRelativeBaseUrlPath: 'childBlocks/childBlock',\n")
+                .append("        moduleAbsolutePath: '/blocks/block'\n")
+                .append("    }\n")
+                .append("});\n");
+    }
+}
@@ -515,4 +515,20 @@ public class ConfigParseTest extends RequirejsTestCase
                 "./fileForCompletionTestConfigWithoutBaseUrlWithRelativePath"
         ), strings);
     }
+
+    public void testConfigAfterRegexAndTemplateMentioningConfig()
+    {
+        myFixture.addFileToProject(
+                "public/mainAfterLiterals.js",
+                "var pattern = /require.config\\({/;\n"
+                        + "var template = `requirejs.config({baseUrl: '/wrong'})`;\n"
+                        + "requirejs.config({\n    baseUrl: '/blocks',\n    paths: {\n        afterLiterals: 'childBlocks/childBlock'\n    }\n});\n"
+        );
+        setConfigPath("mainAfterLiterals.js");
+        RequirejsProjectComponent component = getProject().getComponent(RequirejsProjectComponent.class);
+
+        assertTrue(component.parseRequirejsConfig());
+        assertEquals("blocks", component.getConfig().baseUrl);
+        assertNotNull(component.getConfig().requirePaths.getPaths().get("afterLiterals"));
+    }
 }
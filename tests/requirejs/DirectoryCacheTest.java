@@ -0,0 +1,58 @@
+package requirejs;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.vfs.VirtualFile;
+
+import java.io.IOException;
+
+public class DirectoryCacheTest extends RequirejsTestCase {
+    protected RequirejsProjectComponent component;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        myFixture.configureByFiles(
+                "public/mainRequireJs.js",
+                "public/blocks/block.js"
+        );
+        setWebPathSetting();
+        setConfigPath("mainRequireJs.js");
+        component = getProject().getComponent(RequirejsProjectComponent.class);
+    }
+
+    public void testWebDirFollowsSettings() {
+        VirtualFile webDir = component.getWebDir();
+        assertNotNull(webDir);
+        assertEquals("public", webDir.getName());
+        assertSame(webDir, component.getWebDir());
+
+        setWebPathSetting("public/blocks");
+        assertEquals("blocks", component.getWebDir().getName());
+    }
+
+    public void testMissingWebDirFoundAfterCreation() throws IOException {
+        setWebPathSetting("other");
+        assertNull(component.getWebDir());
+
+        VirtualFile created = myFixture.getTempDirFixture().findOrCreateDir("other");
+        assertEquals(created, component.getWebDir());
+    }
+
+    public void testBaseUrlPathAfterDirectoryDeleted() throws IOException {
+        VirtualFile blocks = component.getBaseUrlPath(true);
+        assertNotNull(blocks);
+        assertEquals("blocks", blocks.getName());
+
+        WriteCommandAction.runWriteCommandAction(getProject(), new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    myFixture.getTempDirFixture().getFile("public/blocks").delete(this);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        assertNull(component.getBaseUrlPath(false));
+    }
+}
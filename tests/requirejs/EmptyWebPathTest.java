@@ -2,7 +2,6 @@ package requirejs;
 
 import com.intellij.codeInsight.completion.CompletionType;
 import com.intellij.openapi.editor.LogicalPosition;
-import requirejs.settings.Settings;
 
 import java.util.Arrays;
 import java.util.List;
@@ -27,7 +26,7 @@ public class EmptyWebPathTest extends RequirejsTestCase
 
     public void testEmptyWebPathCompletion()
     {
-        Settings.getInstance(getProject()).publicPath = "";
+        setWebPathSetting("");
         List<String> strings;
 
         myFixture.configureByFile("parentWebPathFile.js");
@@ -1,6 +1,11 @@
 package requirejs;
 
+import com.intellij.codeInsight.navigation.actions.GotoDeclarationAction;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiReference;
+import com.intellij.psi.ResolveResult;
 import requirejs.settings.Settings;
 
 public class FilenameEqualsDirectoryNameTest extends RequirejsTestCase {
@@ -23,4 +28,22 @@ public class FilenameEqualsDirectoryNameTest extends RequirejsTestCase {
         PsiReference reference = getReferenceForHumanPosition(5, 33);
         assertReference(reference, "core/tools", "tools.js");
     }
+
+    public void testNavigatesToFileOnly() {
+        myFixture.configureByFile("public/fileForTestFilenameEqualsDirectoryName.js");
+
+        PsiReference reference = getRequirejsReference(getReferenceForHumanPosition(5, 33));
+        ResolveResult[] results = ((RequirejsReference) reference).multiResolve(false);
+        assertEquals(2, results.length);
+        assertInstanceOf(results[1].getElement(), PsiDirectory.class);
+
+        PsiElement[] targets = GotoDeclarationAction.findAllTargetElements(
+                getProject(),
+                myFixture.getEditor(),
+                myFixture.getCaretOffset()
+        );
+        assertEquals(1, targets.length);
+        assertInstanceOf(targets[0], PsiFile.class);
+        assertEquals("tools.js", ((PsiFile) targets[0]).getName());
+    }
 }
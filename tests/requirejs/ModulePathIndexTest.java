@@ -0,0 +1,97 @@
+package requirejs;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.roots.ex.ProjectRootManagerEx;
+import com.intellij.openapi.util.EmptyRunnable;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class ModulePathIndexTest extends RequirejsTestCase {
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        myFixture.configureByFiles(
+                "public/blocks/childWebPathFile.js",
+                "public/blocks/fileWithDotPath.js",
+                "public/blocks/fileWithTwoDotPath.js",
+                "public/main.js",
+                "public/blocks/block.js",
+                "public/blocks/childBlocks/childBlock.js",
+                "public/rootWebPathFile.js"
+        );
+        setWebPathSetting();
+    }
+
+    public void testCompletionAfterFileCreated() {
+        List<String> strings = getCompletionStringsForHumanPosition(3, 38);
+        assertCompletionList(Arrays.asList(
+                "blocks/block",
+                "blocks/childWebPathFile",
+                "blocks/fileWithDotPath",
+                "blocks/fileWithTwoDotPath",
+                "blocks/childBlocks/childBlock"
+        ), strings);
+
+        myFixture.addFileToProject("public/blocks/createdBlock.js", "define({});");
+
+        strings = getCompletionStringsForHumanPosition(3, 38);
+        assertCompletionList(Arrays.asList(
+                "blocks/block",
+                "blocks/createdBlock",
+                "blocks/childWebPathFile",
+                "blocks/fileWithDotPath",
+                "blocks/fileWithTwoDotPath",
+                "blocks/childBlocks/childBlock"
+        ), strings);
+    }
+
+    public void testCompletionAfterFileDeleted() {
+        List<String> strings = getCompletionStringsForHumanPosition(3, 38);
+        assertCompletionList(Arrays.asList(
+                "blocks/block",
+                "blocks/childWebPathFile",
+                "blocks/fileWithDotPath",
+                "blocks/fileWithTwoDotPath",
+                "blocks/childBlocks/childBlock"
+        ), strings);
+
+        final PsiFile block = myFixture.getPsiManager().findFile(
+                myFixture.getTempDirFixture().getFile("public/blocks/block.js")
+        );
+        assertNotNull(block);
+        WriteCommandAction.runWriteCommandAction(getProject(), new Runnable() {
+            @Override
+            public void run() {
+                block.delete();
+            }
+        });
+
+        strings = getCompletionStringsForHumanPosition(3, 38);
+        assertCompletionList(Arrays.asList(
+                "blocks/childWebPathFile",
+                "blocks/fileWithDotPath",
+                "blocks/fileWithTwoDotPath",
+                "blocks/childBlocks/childBlock"
+        ), strings);
+    }
+
+    public void testIndexDroppedOnRootsChange() {
+        final RequirejsProjectComponent component = getProject().getComponent(RequirejsProjectComponent.class);
+        VirtualFile webDir = component.getWebDir();
+        ModulePathTrie files = component.moduleIndex.getFiles(webDir);
+        assertSame(files, component.moduleIndex.getFiles(webDir));
+
+        ApplicationManager.getApplication().runWriteAction(new Runnable() {
+            @Override
+            public void run() {
+                ProjectRootManagerEx.getInstanceEx(getProject()).makeRootsChange(EmptyRunnable.getInstance(), false, true);
+            }
+        });
+
+        assertNotSame(files, component.moduleIndex.getFiles(webDir));
+    }
+}
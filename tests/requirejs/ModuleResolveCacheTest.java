@@ -0,0 +1,70 @@
+package requirejs;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+
+import java.io.IOException;
+
+public class ModuleResolveCacheTest extends RequirejsTestCase {
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        myFixture.configureByFiles(
+                "public/rootWebPathConfigTest.js",
+                "public/mainRequireJs.js",
+                "public/blocks/block.js",
+                "public/blocks/childBlocks/childBlock.js",
+                "public/rootWebPathFile.js"
+        );
+        setWebPathSetting();
+        setConfigPath("mainRequireJs.js");
+    }
+
+    public void testReferenceResolvedTwice() {
+        assertReference(getReferenceForHumanPosition(4, 51), "moduleRelativeBaseUrlPath", "childBlock.js");
+        assertReference(getReferenceForHumanPosition(4, 51), "moduleRelativeBaseUrlPath", "childBlock.js");
+    }
+
+    public void testReferenceAfterConfigChanged() throws IOException {
+        assertReference(getReferenceForHumanPosition(4, 51), "moduleRelativeBaseUrlPath", "childBlock.js");
+
+        final VirtualFile config = myFixture.getTempDirFixture().getFile("public/mainRequireJs.js");
+        assertNotNull(config);
+        final String text = VfsUtilCore.loadText(config).replace("'childBlocks/childBlock'", "'block'");
+        WriteCommandAction.runWriteCommandAction(getProject(), new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    VfsUtil.saveText(config, text);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+
+        assertReference(getReferenceForHumanPosition(4, 51), "moduleRelativeBaseUrlPath", "block.js");
+    }
+
+    public void testUnrelatedSaveKeepsResults() throws IOException {
+        assertReference(getReferenceForHumanPosition(4, 51), "moduleRelativeBaseUrlPath", "childBlock.js");
+        final RequirejsProjectComponent component = getProject().getComponent(RequirejsProjectComponent.class);
+        assertTrue(component.resolveCache.isCached("moduleRelativeBaseUrlPath"));
+
+        final VirtualFile file = myFixture.getTempDirFixture().getFile("public/rootWebPathFile.js");
+        assertNotNull(file);
+        WriteCommandAction.runWriteCommandAction(getProject(), new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    VfsUtil.saveText(file, "define(function() { return 42; });\n");
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+
+        assertTrue(component.resolveCache.isCached("moduleRelativeBaseUrlPath"));
+    }
+}
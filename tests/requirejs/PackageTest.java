@@ -1,5 +1,6 @@
 package requirejs;
 
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiReference;
 
 import java.util.Arrays;
@@ -222,4 +223,16 @@ public class PackageTest extends RequirejsTestCase {
         reference = getReferenceForHumanPosition(15, 35);
         assertReference(reference, "'packageWithSlash/package/location/notFound'", null);
     }
+
+    public void testMainFileResolvedAtParse()
+    {
+        RequirejsProjectComponent component = getProject().getComponent(RequirejsProjectComponent.class);
+        assertTrue(component.parseRequirejsConfig());
+        PackageConfig packageConfig = component.getConfig().packageConfig;
+
+        VirtualFile mainFile = packageConfig.findPackage("packageWithMain").mainFile;
+        assertNotNull(mainFile);
+        assertEquals("packageFile.js", mainFile.getName());
+        assertNull(packageConfig.findPackage("packageWithMainNotExists").mainFile);
+    }
 }
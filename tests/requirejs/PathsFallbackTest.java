@@ -0,0 +1,40 @@
+package requirejs;
+
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiNamedElement;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.ResolveResult;
+
+public class PathsFallbackTest extends RequirejsTestCase {
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        myFixture.configureByFiles(
+                "public/config/configWithPathsFallback.js",
+                "public/blocks/block.js",
+                "public/blocks/childBlocks/childBlock.js"
+        );
+        setWebPathSetting();
+        setConfigPath("config/configWithPathsFallback.js");
+    }
+
+    public void testReferenceWithUriFallback() {
+        PsiReference reference = getRequirejsReference(getReferenceForHumanPosition(10, 6));
+        assertInstanceOf(reference, RequirejsReference.class);
+
+        ResolveResult[] results = ((RequirejsReference) reference).multiResolve(false);
+        assertEquals(2, results.length);
+        assertEquals("http://cdn.example.com/block.js", ((PsiNamedElement) results[0].getElement()).getName());
+        assertEquals("block.js", ((PsiFile) results[1].getElement()).getName());
+    }
+
+    public void testReferenceWithLocalFallback() {
+        PsiReference reference = getReferenceForHumanPosition(11, 6);
+        assertReference(reference, "moduleWithLocalFallback", "childBlock.js");
+
+        ResolveResult[] results = ((RequirejsReference) getRequirejsReference(reference)).multiResolve(false);
+        assertEquals(2, results.length);
+        assertEquals("childBlock.js", ((PsiFile) results[0].getElement()).getName());
+        assertEquals("block.js", ((PsiFile) results[1].getElement()).getName());
+    }
+}
@@ -0,0 +1,37 @@
+package requirejs;
+
+import com.intellij.psi.PsiReference;
+
+public class PathsLongestPrefixTest extends RequirejsTestCase {
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        myFixture.configureByFiles(
+                "public/config/configWithNestedPaths.js",
+                "public/blocks/block.js",
+                "public/blocks/childBlocks/childBlock.js"
+        );
+        setWebPathSetting();
+        setConfigPath("config/configWithNestedPaths.js");
+    }
+
+    public void testLongestAliasWins() {
+        assertReference(getReferenceForHumanPosition(11, 6), "lib/child/childBlock", "childBlock.js");
+    }
+
+    public void testAliasMatchesWholeSegments() {
+        assertReference(getReferenceForHumanPosition(12, 6), "libs/childBlock", "childBlock.js");
+    }
+
+    public void testAliasTargetNotExists() {
+        assertReference(getReferenceForHumanPosition(13, 6), "lib/block", null);
+    }
+
+    public void testFailedAliasLeavesPathUnchanged() {
+        PsiReference reference = getRequirejsReference(getReferenceForHumanPosition(13, 6));
+        Path path = new Path(reference.getElement(), getProject().getComponent(RequirejsProjectComponent.class));
+
+        assertNull(path.resolve());
+        assertEquals("lib/block", path.getPath());
+    }
+}
@@ -0,0 +1,33 @@
+package requirejs;
+
+import com.intellij.openapi.util.TextRange;
+import junit.framework.TestCase;
+
+public class RequireConfigLocatorTest extends TestCase {
+    protected static final String CONFIG = "require.config({paths: {block: 'blocks/block'}});\n";
+
+    public void testConfigAfterRegexWithConfigCall() {
+        assertConfigFound("var pattern = /require.config\\({/;\n" + CONFIG);
+        assertConfigFound("if (!/require\\.config\\(\\{'/.test(source)) {}\n" + CONFIG);
+        assertConfigFound("var half = total / 2, other = /[/]require({/g;\n" + CONFIG);
+    }
+
+    public void testConfigAfterTemplateWithConfigCall() {
+        assertConfigFound("var template = `require.config({\n    paths: {}\n})`;\n" + CONFIG);
+        assertConfigFound("var template = `${'require.config({'} ${ {a: `}`}.a }`;\n" + CONFIG);
+    }
+
+    public void testGivesUpWhereSlashIsAmbiguous() {
+        assertNull(new RequireConfigLocator("if (legacy) /require.config\\(/.test(source);\n" + CONFIG).findConfigObject());
+    }
+
+    public void testGivesUpOnUnterminatedString() {
+        assertNull(new RequireConfigLocator("var broken = 'require.config({\n" + CONFIG).findConfigObject());
+    }
+
+    protected static void assertConfigFound(String text) {
+        TextRange range = new RequireConfigLocator(text).findConfigObject();
+        assertNotNull(text, range);
+        assertEquals(text, "{paths: {block: 'blocks/block'}}", range.substring(text));
+    }
+}
@@ -2,18 +2,26 @@ package requirejs;
 
 import com.intellij.codeInsight.completion.CompletionType;
 import com.intellij.lang.javascript.psi.JSFile;
+import com.intellij.lang.javascript.psi.JSLiteralExpression;
 import com.intellij.openapi.editor.LogicalPosition;
 import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiNamedElement;
 import com.intellij.psi.PsiReference;
 import com.intellij.psi.impl.source.resolve.reference.impl.PsiMultiReference;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.testFramework.PlatformTestUtil;
 import com.intellij.testFramework.fixtures.CodeInsightFixtureTestCase;
+import com.intellij.util.ThrowableRunnable;
 import requirejs.settings.Settings;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 public abstract class RequirejsTestCase extends CodeInsightFixtureTestCase {
@@ -22,6 +30,7 @@ public abstract class RequirejsTestCase extends CodeInsightFixtureTestCase {
         super.setUp();
 
         Settings.getInstance(myFixture.getProject()).pluginEnabled = true;
+        Settings.getInstance(myFixture.getProject()).incModificationCount();
     }
 
     protected void setWebPathSetting() {
@@ -30,19 +39,23 @@ public abstract class RequirejsTestCase extends CodeInsightFixtureTestCase {
 
     protected void setWebPathSetting(String path) {
         Settings.getInstance(myFixture.getProject()).publicPath = path;
+        Settings.getInstance(myFixture.getProject()).incModificationCount();
     }
 
     protected void setConfigPath(String configPath) {
         Settings.getInstance(getProject()).configFilePath = configPath;
+        Settings.getInstance(getProject()).incModificationCount();
     }
 
     protected void setBaseUrlOverride(String baseUrl) {
         Settings.getInstance(getProject()).overrideBaseUrl = true;
         Settings.getInstance(getProject()).baseUrl = baseUrl;
+        Settings.getInstance(getProject()).incModificationCount();
     }
 
     protected void setBaseUrlOverrideDisable() {
         Settings.getInstance(getProject()).overrideBaseUrl = false;
+        Settings.getInstance(getProject()).incModificationCount();
     }
 
     protected void assertCompletionList(List<String> expected, List<String> actual) {
@@ -85,17 +98,22 @@ public abstract class RequirejsTestCase extends CodeInsightFixtureTestCase {
         return myFixture.getReferenceAtCaretPosition();
     }
 
-    protected void assertReference(PsiReference reference, String expectedText, String expectedFileName) {
-        assertNotNull("wrong cursor position", reference);
+    protected PsiReference getRequirejsReference(PsiReference reference) {
         if (reference instanceof PsiMultiReference) {
             for (PsiReference ref : ((PsiMultiReference)reference).getReferences()) {
                 if (ref instanceof RequirejsReference) {
-                    reference = ref;
-                    break;
+                    return ref;
                 }
             }
         }
 
+        return reference;
+    }
+
+    protected void assertReference(PsiReference reference, String expectedText, String expectedFileName) {
+        assertNotNull("wrong cursor position", reference);
+        reference = getRequirejsReference(reference);
+
         if (!expectedText.startsWith("'")) {
             expectedText = "'".concat(expectedText).concat("'");
         }
@@ -117,4 +135,79 @@ public abstract class RequirejsTestCase extends CodeInsightFixtureTestCase {
         assertTrue(referenceElement instanceof PsiNamedElement);
         assertEquals(expectedUrl, ((PsiNamedElement) referenceElement).getName());
     }
+
+    /**
+     * Writes the project to the web dir of the fixture and opens its app.js in the editor.
+     */
+    protected SyntheticProject generateSyntheticProject(SyntheticProject project) throws IOException {
+        project.writeTo(new File(myFixture.getTempDirPath(), "public"));
+        refreshTempDir();
+        setWebPathSetting();
+        setConfigPath("main.js");
+        myFixture.configureFromTempProjectFile("public/app.js");
+
+        return project;
+    }
+
+    protected void refreshTempDir() {
+        VirtualFile root = LocalFileSystem.getInstance().refreshAndFindFileByPath(myFixture.getTempDirPath());
+        assertNotNull(root);
+        VfsUtil.markDirtyAndRefresh(false, true, true, root);
+    }
+
+    protected JSLiteralExpression findLiteral(String value) {
+        for (JSLiteralExpression literal : PsiTreeUtil.findChildrenOfType(myFixture.getFile(), JSLiteralExpression.class)) {
+            if (literal.getText().equals("'" + value + "'")) {
+                return literal;
+            }
+        }
+        fail("Literal " + value + " not found");
+        return null;
+    }
+
+    /**
+     * Resolves the references of the given literals of the current file, with all resolve caches
+     * dropped before every run, and asserts that each of them resolves within expectedMs.
+     */
+    protected void assertResolveTiming(String what, int expectedMs, String... values) {
+        final List<PsiReference> references = new ArrayList<PsiReference>();
+        for (String value : values) {
+            JSLiteralExpression literal = findLiteral(value);
+            PsiReference reference = null;
+            for (PsiReference candidate : literal.getReferences()) {
+                if (candidate instanceof RequirejsReference) {
+                    reference = candidate;
+                }
+            }
+            assertNotNull("No reference on " + value, reference);
+            references.add(reference);
+        }
+
+        final RequirejsProjectComponent component = getProject().getComponent(RequirejsProjectComponent.class);
+        PlatformTestUtil.startPerformanceTest(what, expectedMs, new ThrowableRunnable() {
+            @Override
+            public void run() throws Throwable {
+                myFixture.getPsiManager().dropResolveCaches();
+                component.resolveCache.clear();
+                for (PsiReference reference : references) {
+                    assertNotNull("Not resolved " + reference.getCanonicalText(), reference.resolve());
+                }
+            }
+        }).assertTiming();
+    }
+
+    /**
+     * Computes completion variants for the literal with the given value of the current file
+     * and asserts it takes less than expectedMs and returns at least minVariants variants.
+     */
+    protected void assertCompletionTiming(String what, int expectedMs, String value, final int minVariants) {
+        final JSLiteralExpression literal = findLiteral(value);
+        final RequirejsProjectComponent component = getProject().getComponent(RequirejsProjectComponent.class);
+        PlatformTestUtil.startPerformanceTest(what, expectedMs, new ThrowableRunnable() {
+            @Override
+            public void run() throws Throwable {
+                assertTrue(component.getCompletion(literal).size() >= minVariants);
+            }
+        }).assertTiming();
+    }
 }
@@ -0,0 +1,110 @@
+package requirejs;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.util.ThrowableRunnable;
+import requirejs.settings.Settings;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Baseline timings for indexing the web dir, completion, every resolve probe, config parsing and the
+ * require.js runtime, against generated projects of 1k, 10k and 100k files.
+ * The 100k project takes minutes to create, so it only runs with -Drequirejs.benchmark.large=true.
+ */
+public class ResolveBenchmarkTest extends RequirejsTestCase {
+    protected RequirejsProjectComponent component;
+    protected SyntheticProject project;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        component = getProject().getComponent(RequirejsProjectComponent.class);
+    }
+
+    public void test1kFiles() throws IOException {
+        runBenchmarks(1000, 1);
+    }
+
+    public void test10kFiles() throws IOException {
+        runBenchmarks(10000, 10);
+    }
+
+    public void test100kFiles() throws IOException {
+        if (!Boolean.getBoolean("requirejs.benchmark.large")) {
+            return;
+        }
+        runBenchmarks(100000, 100);
+    }
+
+    protected void runBenchmarks(int filesCount, int scale) throws IOException {
+        project = new SyntheticProject();
+        project.filesCount = filesCount;
+        generateSyntheticProject(project);
+
+        final VirtualFile webDir = component.getWebDir();
+        assertNotNull(webDir);
+        PlatformTestUtil.startPerformanceTest("index all files, " + filesCount, 100 * scale, new ThrowableRunnable() {
+            @Override
+            public void run() throws Throwable {
+                component.moduleIndex.clear();
+                assertEquals(project.getTotalFilesCount(), component.moduleIndex.getFilesWithPrefix(webDir, "").size());
+            }
+        }).assertTiming();
+
+        PlatformTestUtil.startPerformanceTest("parse config, " + filesCount, 200, new ThrowableRunnable() {
+            @Override
+            public void run() throws Throwable {
+                assertTrue(component.parseRequirejsConfig());
+            }
+        }).assertTiming();
+
+        assertCompletionTiming("completion, " + filesCount, 5 * scale, project.directoryPrefix, SyntheticProject.FILES_PER_DIRECTORY);
+
+        assertProbeTiming("relative", project.relativeDependency, filesCount);
+        assertProbeTiming("basic", project.basicDependency, filesCount);
+        assertProbeTiming("paths", project.aliasDependency, filesCount);
+        assertProbeTiming("package", project.packageDependency, filesCount);
+        assertProbeTiming("map", project.mapDependency, filesCount);
+        assertProbeTiming("url", project.urlDependency, filesCount);
+
+        assertRuntimeTiming(filesCount, scale);
+    }
+
+    protected void assertProbeTiming(String probe, String value, int filesCount) {
+        final PsiElement literal = findLiteral(value);
+        PlatformTestUtil.startPerformanceTest("resolve " + probe + ", " + filesCount, 200, new ThrowableRunnable() {
+            @Override
+            public void run() throws Throwable {
+                for (int i = 0; i < 1000; i++) {
+                    assertNotNull(new Path(literal, component).resolve());
+                }
+            }
+        }).assertTiming();
+    }
+
+    protected void assertRuntimeTiming(int filesCount, int scale) throws IOException {
+        File requireJs = new File(myFixture.getTestDataPath(), "public/lib/require.js");
+        FileUtil.copy(requireJs, new File(myFixture.getTempDirPath(), "public/lib/require.js"));
+        refreshTempDir();
+        Settings settings = Settings.getInstance(getProject());
+        settings.requireJsEnabled = true;
+        settings.requireJsPath = "public/lib/require.js";
+        settings.incModificationCount();
+
+        final RequireJsRuntime runtime = component.getRequireRuntime();
+        assertNotNull(runtime);
+        PlatformTestUtil.startPerformanceTest("require.js resolvePath, " + filesCount, 100 * scale, new ThrowableRunnable() {
+            @Override
+            public void run() throws Throwable {
+                component.resolvedPathsCache.clear();
+                for (String moduleId : project.moduleIds) {
+                    assertNotNull(runtime.resolvePath(moduleId));
+                }
+            }
+        }).assertTiming();
+    }
+}
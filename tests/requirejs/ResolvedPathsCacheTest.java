@@ -0,0 +1,32 @@
+package requirejs;
+
+import junit.framework.TestCase;
+
+public class ResolvedPathsCacheTest extends TestCase {
+    public void testOlderStampIsIgnored() {
+        ResolvedPathsCache cache = new ResolvedPathsCache();
+        cache.put("module", "new/module", 2);
+
+        cache.put("module", "old/module", 1);
+        assertNull(cache.get("module", 1));
+        assertEquals("new/module", cache.get("module", 2));
+    }
+
+    public void testNewerStampDropsEntries() {
+        ResolvedPathsCache cache = new ResolvedPathsCache();
+        cache.put("module", "old/module", 1);
+
+        assertNull(cache.get("module", 2));
+        assertEquals(0, cache.size());
+    }
+
+    public void testSizeIsBounded() {
+        ResolvedPathsCache cache = new ResolvedPathsCache(2);
+        cache.put("first", "first", 1);
+        cache.put("second", "second", 1);
+        cache.put("third", "third", 1);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+    }
+}
@@ -0,0 +1,148 @@
+package requirejs;
+
+import com.intellij.openapi.util.io.FileUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generator of RequireJS projects for performance tests.
+ *
+ * Output is fully determined by the fields, so timings of two runs are comparable:
+ * modules/ holds filesCount modules, FILES_PER_DIRECTORY per directory, spread over
+ * directoryDepth levels of up to BRANCHING directories; each module defines defineFanOut
+ * dependencies. main.js configures pathsCount aliases to module directories, packagesCount
+ * packages and mapCount '*' map entries. app.js references one module of every resolve kind,
+ * see the *Dependency fields.
+ */
+public class SyntheticProject {
+    public static final int FILES_PER_DIRECTORY = 100;
+    public static final int BRANCHING = 10;
+
+    public int filesCount = 1000;
+    public int directoryDepth = 2;
+    public int pathsCount = 10;
+    public int packagesCount = 5;
+    public int mapCount = 5;
+    public int defineFanOut = 10;
+    public long seed = 1;
+
+    public final List<String> moduleIds = new ArrayList<String>();
+    public final Map<String, List<String>> directories = new LinkedHashMap<String, List<String>>();
+
+    public String basicDependency;
+    public String relativeDependency;
+    public String aliasDependency;
+    public String packageDependency;
+    public String mapDependency;
+    public String urlDependency = "http://example.com/lib.js";
+    public String directoryPrefix;
+
+    /**
+     * Number of files written, including main.js, app.js and the package files.
+     */
+    public int getTotalFilesCount() {
+        return filesCount + packagesCount * 2 + 2;
+    }
+
+    public void writeTo(File publicDir) throws IOException {
+        Random random = new Random(seed);
+        layoutModules();
+
+        List<String> aliases = new ArrayList<String>();
+        List<String> directoryNames = new ArrayList<String>(directories.keySet());
+        StringBuilder config = new StringBuilder("require.config({\n    paths: {\n");
+        for (int i = 0; i < pathsCount; i++) {
+            String directory = directoryNames.get(random.nextInt(directoryNames.size()));
+            List<String> files = directories.get(directory);
+            aliases.add("alias" + i + '/' + files.get(random.nextInt(files.size())));
+            config.append("        alias").append(i).append(": '").append(directory).append("'")
+                    .append(i + 1 < pathsCount ? ",\n" : "\n");
+        }
+        config.append("    },\n    packages: [");
+        for (int i = 0; i < packagesCount; i++) {
+            config.append(i > 0 ? ", " : "").append("'pkg").append(i).append("'");
+            FileUtil.writeToFile(new File(publicDir, "pkg" + i + "/main.js"), "define({});");
+            FileUtil.writeToFile(new File(publicDir, "pkg" + i + "/lib.js"), "define({});");
+        }
+        config.append("],\n    map: {\n        '*': {\n");
+        for (int i = 0; i < mapCount; i++) {
+            config.append("            mapped").append(i).append(": '")
+                    .append(moduleIds.get(random.nextInt(moduleIds.size()))).append("'")
+                    .append(i + 1 < mapCount ? ",\n" : "\n");
+        }
+        config.append("        }\n    }\n});\n");
+        FileUtil.writeToFile(new File(publicDir, "main.js"), config.toString());
+
+        for (String moduleId : moduleIds) {
+            StringBuilder module = new StringBuilder("define([");
+            for (int i = 0; i < defineFanOut; i++) {
+                module.append(i > 0 ? ", " : "").append('\'').append(pickDependency(random, aliases)).append('\'');
+            }
+            module.append("], function () {\n    return {id: '").append(moduleId).append("'};\n});\n");
+            FileUtil.writeToFile(new File(publicDir, moduleId + ".js"), module.toString());
+        }
+
+        basicDependency = moduleIds.get(moduleIds.size() / 2);
+        relativeDependency = "./" + moduleIds.get(moduleIds.size() - 1);
+        aliasDependency = aliases.isEmpty() ? basicDependency : aliases.get(0);
+        packageDependency = packagesCount > 0 ? "pkg0" : basicDependency;
+        mapDependency = mapCount > 0 ? "mapped0" : basicDependency;
+        directoryPrefix = directoryNames.get(0) + '/';
+        FileUtil.writeToFile(new File(publicDir, "app.js"), "define([\n"
+                + "    '" + basicDependency + "',\n"
+                + "    '" + relativeDependency + "',\n"
+                + "    '" + aliasDependency + "',\n"
+                + "    '" + packageDependency + "',\n"
+                + "    '" + mapDependency + "',\n"
+                + "    '" + urlDependency + "',\n"
+                + "    '" + directoryPrefix + "'\n"
+                + "], function () {});\n");
+    }
+
+    private void layoutModules() {
+        moduleIds.clear();
+        directories.clear();
+        for (int i = 0; i < filesCount; i++) {
+            int directoryIndex = i / FILES_PER_DIRECTORY;
+            StringBuilder directory = new StringBuilder("modules");
+            for (int level = 0; level < directoryDepth; level++) {
+                directory.append("/d").append(directoryIndex % BRANCHING);
+                directoryIndex /= BRANCHING;
+            }
+            if (directoryIndex > 0) {
+                // More directories than the depth allows, keep them unique at the deepest level
+                directory.append("/x").append(directoryIndex);
+            }
+            String moduleId = directory + "/module" + i;
+            moduleIds.add(moduleId);
+
+            List<String> files = directories.get(directory.toString());
+            if (null == files) {
+                files = new ArrayList<String>();
+                directories.put(directory.toString(), files);
+            }
+            files.add("module" + i);
+        }
+    }
+
+    private String pickDependency(Random random, List<String> aliases) {
+        int kind = random.nextInt(10);
+        if (kind == 0 && !aliases.isEmpty()) {
+            return aliases.get(random.nextInt(aliases.size()));
+        }
+        if (kind == 1 && packagesCount > 0) {
+            return "pkg" + random.nextInt(packagesCount);
+        }
+        if (kind == 2 && mapCount > 0) {
+            return "mapped" + random.nextInt(mapCount);
+        }
+
+        return moduleIds.get(random.nextInt(moduleIds.size()));
+    }
+}
@@ -0,0 +1,105 @@
+package requirejs;
+
+import com.intellij.openapi.util.io.FileUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class SyntheticProjectTest extends RequirejsTestCase {
+    protected final List<File> tempDirs = new ArrayList<File>();
+
+    @Override
+    public void tearDown() throws Exception {
+        try {
+            for (File tempDir : tempDirs) {
+                FileUtil.delete(tempDir);
+            }
+        } finally {
+            super.tearDown();
+        }
+    }
+
+    public void testDefaultProject() throws IOException {
+        SyntheticProject project = generateSyntheticProject(new SyntheticProject());
+
+        assertAllResolveKinds(project, 100);
+        assertCompletionTiming("completion", 50, project.directoryPrefix, SyntheticProject.FILES_PER_DIRECTORY);
+    }
+
+    public void testDeepProject() throws IOException {
+        SyntheticProject project = new SyntheticProject();
+        project.filesCount = 5000;
+        project.directoryDepth = 5;
+        generateSyntheticProject(project);
+
+        assertAllResolveKinds(project, 100);
+        assertCompletionTiming("completion, deep", 100, "modules/", project.filesCount);
+    }
+
+    public void testLargeConfig() throws IOException {
+        SyntheticProject project = new SyntheticProject();
+        project.pathsCount = 500;
+        project.packagesCount = 200;
+        project.mapCount = 500;
+        project.defineFanOut = 30;
+        generateSyntheticProject(project);
+
+        assertAllResolveKinds(project, 200);
+        assertCompletionTiming("completion, large config", 200, "", project.filesCount);
+    }
+
+    public void testGeneratorIsDeterministic() throws IOException {
+        Map<String, String> first = writeProject(new SyntheticProject());
+        Map<String, String> second = writeProject(new SyntheticProject());
+        assertEquals(new SyntheticProject().getTotalFilesCount(), first.size());
+        assertEquals(first, second);
+
+        SyntheticProject otherSeed = new SyntheticProject();
+        otherSeed.seed = 2;
+        Map<String, String> third = writeProject(otherSeed);
+        assertEquals(first.keySet(), third.keySet());
+        assertFalse(first.equals(third));
+    }
+
+    /**
+     * Writes project to a new temp dir and returns the contents of its files by relative path.
+     */
+    protected Map<String, String> writeProject(SyntheticProject project) throws IOException {
+        File dir = FileUtil.createTempDirectory("requirejs", "synthetic");
+        tempDirs.add(dir);
+        project.writeTo(dir);
+
+        Map<String, String> files = new TreeMap<String, String>();
+        readFiles(dir, "", files);
+        return files;
+    }
+
+    protected static void readFiles(File dir, String relativePath, Map<String, String> files) throws IOException {
+        File[] children = dir.listFiles();
+        assertNotNull(children);
+        for (File child : children) {
+            if (child.isDirectory()) {
+                readFiles(child, relativePath + child.getName() + '/', files);
+            } else {
+                files.put(relativePath + child.getName(), FileUtil.loadFile(child));
+            }
+        }
+    }
+
+    protected void assertAllResolveKinds(SyntheticProject project, int expectedMs) {
+        assertResolveTiming(
+                "resolve all kinds",
+                expectedMs,
+                project.basicDependency,
+                project.relativeDependency,
+                project.aliasDependency,
+                project.packageDependency,
+                project.mapDependency,
+                project.urlDependency
+        );
+    }
+}
@@ -0,0 +1,115 @@
+package requirejs;
+
+import com.intellij.lang.javascript.psi.JSLiteralExpression;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.TimeoutUtil;
+import com.intellij.util.ui.UIUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class WarmUpTaskTest extends RequirejsTestCase {
+    protected RequirejsProjectComponent component;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        myFixture.addFileToProject(
+                "public/mainWarmUp.js",
+                "requirejs.config({\n    baseUrl: '/blocks'\n});\ndefine(function (require) {\n    require('first');\n});\n"
+        );
+        myFixture.addFileToProject("public/blocks/first.js", "define(function (require) {\n    require('second');\n});\n");
+        myFixture.addFileToProject("public/blocks/second.js", "define(function (require) {\n    require('first');\n});\n");
+        myFixture.addFileToProject("public/blocks/unused.js", "define({});\n");
+        setWebPathSetting();
+        setConfigPath("mainWarmUp.js");
+        component = getProject().getComponent(RequirejsProjectComponent.class);
+    }
+
+    public void testResolvesDependencyGraphOfConfigFile() {
+        WarmUpTask task = new WarmUpTask(component);
+        task.run(new EmptyProgressIndicator());
+
+        assertTrue(component.getConfig().parsed);
+        assertWarmedFiles(task);
+    }
+
+    public void testYieldsToPendingWriteAction() throws Exception {
+        final AtomicInteger resolveAttempts = new AtomicInteger();
+        final AtomicBoolean written = new AtomicBoolean();
+        final WarmUpTask task = new WarmUpTask(component) {
+            @Override
+            protected List<VirtualFile> resolveLiteral(JSLiteralExpression literal) {
+                if (resolveAttempts.incrementAndGet() == 1) {
+                    ApplicationManager.getApplication().invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            ApplicationManager.getApplication().runWriteAction(new Runnable() {
+                                @Override
+                                public void run() {
+                                    written.set(true);
+                                }
+                            });
+                        }
+                    });
+                    waitUntilCanceled();
+                }
+                return super.resolveLiteral(literal);
+            }
+        };
+
+        Future<?> future = ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+            @Override
+            public void run() {
+                task.run(new EmptyProgressIndicator());
+            }
+        });
+        long deadline = System.currentTimeMillis() + 30000;
+        while (!future.isDone()) {
+            assertTrue("Warm-up did not finish", System.currentTimeMillis() < deadline);
+            UIUtil.dispatchAllInvocationEvents();
+            TimeoutUtil.sleep(10);
+        }
+        future.get();
+
+        assertTrue(written.get());
+        // The cancelled literal was resolved again after the write action
+        assertTrue(resolveAttempts.get() > 1);
+        assertWarmedFiles(task);
+    }
+
+    public void testSkippedWhenConfigMissing() {
+        setConfigPath("missing.js");
+        WarmUpTask task = new WarmUpTask(component);
+        task.run(new EmptyProgressIndicator());
+
+        assertFalse(component.getConfig().parsed);
+        assertEmpty(task.warmedFiles);
+    }
+
+    protected static void assertWarmedFiles(WarmUpTask task) {
+        List<String> names = new ArrayList<String>();
+        for (VirtualFile file : task.warmedFiles) {
+            names.add(file.getName());
+        }
+        assertOrderedEquals(names, "mainWarmUp.js", "first.js", "second.js");
+    }
+
+    /**
+     * Spins inside the read action until the pending write action cancels it.
+     */
+    protected static void waitUntilCanceled() {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (System.currentTimeMillis() < deadline) {
+            ProgressManager.checkCanceled();
+            TimeoutUtil.sleep(10);
+        }
+        fail("Read action was not cancelled by the pending write action");
+    }
+}